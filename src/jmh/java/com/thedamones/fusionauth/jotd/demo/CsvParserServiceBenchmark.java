@@ -0,0 +1,72 @@
+package com.thedamones.fusionauth.jotd.demo;
+
+import com.thedamones.fusionauth.jotd.jokes.CreateJokeRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing generated CSV uploads of increasing size, both into a list and row by row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class CsvParserServiceBenchmark {
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private final CsvParserService csvParserService = new CsvParserService();
+    private MockMultipartFile file;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StringBuilder csv = new StringBuilder("date,joke,description\n");
+        LocalDate date = LocalDate.of(2000, 1, 1);
+        for (int i = 0; i < rows; i++) {
+            csv.append(date.plusDays(i))
+                    .append(",\"Joke number ").append(i).append(", with a comma\",")
+                    .append("Description ").append(i).append('\n');
+        }
+        file = new MockMultipartFile("file", "jokes.csv", "text/csv", csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public List<CreateJokeRecord> parseRecords() {
+        return csvParserService.parseRecords(file, CreateJokeRecord.class);
+    }
+
+    @Benchmark
+    public void streamRecords(Blackhole blackhole) {
+        csvParserService.streamRecords(file, CreateJokeRecord.class, new CsvParserService.CsvRowHandler<>() {
+            @Override
+            public void accept(long line, CreateJokeRecord record) {
+                blackhole.consume(record);
+            }
+
+            @Override
+            public void reject(long line, String message) {
+                blackhole.consume(message);
+            }
+        });
+    }
+}
@@ -0,0 +1,136 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.AnnotationLinkRelationProvider;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures turning jokes into their HAL representation: converting the entity to a record, assembling the model with
+ * its links, and serializing a page of models to JSON.  The repository is replaced by a stub so only the
+ * representation work is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JokeRepresentationBenchmark {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    @Param({"20", "200"})
+    private int pageSize;
+
+    private final JokeToJokeRecordConverter converter = new JokeToJokeRecordConverter();
+    private JokeModelAssembler assembler;
+    private ObjectMapper objectMapper;
+    private Joke joke;
+    private List<JokeRecord> jokes;
+    private PagedModel<EntityModel<JokeRecord>> page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/jokes");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request), true);
+
+        assembler = new JokeModelAssembler(stubRepository());
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new Jackson2HalModule())
+                .handlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+                        new AnnotationLinkRelationProvider(), CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY))
+                .build();
+
+        joke = new Joke();
+        joke.setId(UUID.randomUUID());
+        joke.setDate(START);
+        joke.setJoke("Why did the scarecrow win an award? Because he was outstanding in his field.");
+        joke.setDescription("A classic");
+        joke.setVersion(0L);
+        joke.setLastModified(Instant.now());
+
+        jokes = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            jokes.add(new JokeRecord(UUID.randomUUID(), START.plusDays(i), "Joke number " + i, "Description " + i, 0L, Instant.now()));
+        }
+        page = PagedModel.of(jokes.stream().map(assembler.forPage(jokes)::toModel).toList(),
+                new PagedModel.PageMetadata(pageSize, 0, pageSize * 10L));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public JokeRecord convert() {
+        return converter.convert(joke);
+    }
+
+    @Benchmark
+    public EntityModel<JokeRecord> toModel() {
+        return assembler.toModel(jokes.get(0));
+    }
+
+    @Benchmark
+    public List<EntityModel<JokeRecord>> toPageModels() {
+        var pageAssembler = assembler.forPage(jokes);
+        return jokes.stream().map(pageAssembler::toModel).toList();
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    /**
+     * Returns a repository where every joke has a joke the next day, answering only the lookups the assembler makes.
+     */
+    private static JokeRepository stubRepository() {
+        return (JokeRepository) Proxy.newProxyInstance(JokeRepository.class.getClassLoader(), new Class<?>[] { JokeRepository.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByDate" -> {
+                        Joke next = new Joke();
+                        next.setId(UUID.randomUUID());
+                        next.setDate((LocalDate) args[0]);
+                        yield Optional.of(next);
+                    }
+                    case "findJokeDatesByDateIn" -> ((Collection<?>) args[0]).stream()
+                            .map(date -> new JokeDate(UUID.randomUUID(), (LocalDate) date))
+                            .toList();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,134 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import com.thedamones.fusionauth.jotd.JokeOfTheDayApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures {@link JokeService} reads and writes against the application running on a file-based H2 database, the
+ * same setup as the application itself.  The database is recreated and seeded with {@code jokes} jokes, centred on
+ * today, for each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JokeServiceBenchmark {
+
+    @Param({"10000"})
+    private int jokes;
+
+    private ConfigurableApplicationContext context;
+    private JokeService jokeService;
+    private List<JokeRecord> seeded;
+    private LocalDate start;
+    private final AtomicLong nextDay = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(JokeOfTheDayApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:file:./target/jmh/jokes;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--logging.level.root=WARN");
+        jokeService = context.getBean(JokeService.class);
+
+        // the benchmark threads aren't the setup thread, so share the admin login between them
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("benchmark", null, "ROLE_ADMIN"));
+
+        start = LocalDate.now().minusDays(jokes / 2);
+        List<CreateJokeRecord> requests = new ArrayList<>(jokes);
+        for (int i = 0; i < jokes; i++) {
+            requests.add(new CreateJokeRecord(start.plusDays(i), "Joke number " + i, "Description " + i));
+        }
+        seeded = new ArrayList<>(jokes);
+        for (int i = 0; i < jokes; i += 1000) {
+            seeded.addAll(jokeService.addJokes(requests.subList(i, Math.min(i + 1000, jokes))));
+        }
+        nextDay.set(jokes);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        context.close();
+    }
+
+    @Benchmark
+    public JokeRecord getJoke() {
+        return jokeService.getJoke(randomJoke().id());
+    }
+
+    @Benchmark
+    public JokeOfTheDay getJokeOfTheDay() {
+        return jokeService.getJokeOfTheDaySnapshot();
+    }
+
+    @Benchmark
+    public Page<JokeRecord> getJokes() {
+        return jokeService.getJokes(randomJoke().date(), JokeFields.ALL, PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public Page<JokeRecord> getJokeDates() {
+        return jokeService.getJokes(randomJoke().date(), JokeFields.valueOf("id,date"), PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public JokeSlice scrollJokes() {
+        return jokeService.scrollJokes(null, new JokeCursor(randomJoke().date()), null, 20);
+    }
+
+    @Benchmark
+    public JokeRecord addJoke() {
+        return jokeService.addJoke(new CreateJokeRecord(start.plusDays(nextDay.getAndIncrement()), "New joke", null));
+    }
+
+    @Benchmark
+    public List<JokeRecord> addJokes() {
+        long first = nextDay.getAndAdd(1000);
+        List<CreateJokeRecord> requests = new ArrayList<>(1000);
+        for (int i = 0; i < 1000; i++) {
+            requests.add(new CreateJokeRecord(start.plusDays(first + i), "New joke", null));
+        }
+        return jokeService.addJokes(requests);
+    }
+
+    @Benchmark
+    public JokeRecord updateJoke() {
+        JokeRecord joke = randomJoke();
+        return jokeService.updateJoke(joke.id(), new JokeRecord(joke.id(), joke.date(), "Updated " + UUID.randomUUID(), joke.description()), null);
+    }
+
+    private JokeRecord randomJoke() {
+        return seeded.get(ThreadLocalRandom.current().nextInt(seeded.size()));
+    }
+}
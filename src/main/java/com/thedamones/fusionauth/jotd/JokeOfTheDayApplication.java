@@ -1,5 +1,6 @@
 package com.thedamones.fusionauth.jotd;
 
+import com.thedamones.fusionauth.jotd.startup.StartupReportEndpoint;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.hateoas.config.EnableHypermediaSupport;
@@ -9,7 +10,9 @@ import org.springframework.hateoas.config.EnableHypermediaSupport;
 public class JokeOfTheDayApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(JokeOfTheDayApplication.class, args);
+		SpringApplication application = new SpringApplication(JokeOfTheDayApplication.class);
+		application.setApplicationStartup(StartupReportEndpoint.applicationStartup());
+		application.run(args);
 	}
 
 }
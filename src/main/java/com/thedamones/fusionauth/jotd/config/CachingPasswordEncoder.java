@@ -0,0 +1,107 @@
+package com.thedamones.fusionauth.jotd.config;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Password encoder which remembers successful matches for a limited time, so clients sending the same HTTP Basic
+ * credentials on every request only pay for the (deliberately slow) adaptive hash of the delegate once per TTL.
+ * <p>
+ * Matches are cached under an HMAC of the raw password and the stored hash, keyed with a secret generated at startup,
+ * so the cache never holds anything that could be used to recover a password.  Because the stored hash is part of
+ * the key, changing a user's password invalidates their cached matches; other changes to a user (e.g. disabling it
+ * or changing its roles) are unaffected since the user is still loaded and checked on every request.  Failed matches
+ * are never cached.
+ */
+public class CachingPasswordEncoder implements PasswordEncoder {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final PasswordEncoder delegate;
+    private final long ttlNanos;
+    private final SecretKey key;
+    private final Map<String, Long> matches;
+
+    public CachingPasswordEncoder(PasswordEncoder delegate, int maximumSize, Duration ttl) {
+        this.delegate = delegate;
+        this.ttlNanos = ttl.toNanos();
+        try {
+            this.key = KeyGenerator.getInstance(HMAC_ALGORITHM).generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        // access ordered, so the least recently used match is evicted first
+        this.matches = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+        String digest = digest(rawPassword, encodedPassword);
+        long now = System.nanoTime();
+        synchronized (matches) {
+            Long expires = matches.get(digest);
+            if (expires != null) {
+                if (expires - now > 0) {
+                    return true;
+                }
+                matches.remove(digest);
+            }
+        }
+
+        boolean matched = delegate.matches(rawPassword, encodedPassword);
+        if (matched) {
+            synchronized (matches) {
+                matches.put(digest, now + ttlNanos);
+            }
+        }
+        return matched;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Forgets every cached match, e.g. after users have been changed outside the application.
+     */
+    public void invalidateAll() {
+        synchronized (matches) {
+            matches.clear();
+        }
+    }
+
+    private String digest(CharSequence rawPassword, String encodedPassword) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            mac.update(encodedPassword.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return Base64.getEncoder().encodeToString(mac.doFinal(rawPassword.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -3,8 +3,10 @@ package com.thedamones.fusionauth.jotd.config;
 import io.swagger.v3.oas.models.Components;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.security.SecurityScheme;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
 import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
 import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
@@ -15,8 +17,13 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.CorsConfigurer;
 import org.springframework.security.config.annotation.web.configurers.CsrfConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
@@ -36,14 +43,44 @@ public class SecurityConfig {
         return expressionHandler;
     }
 
+    /**
+     * The password encoder used to check HTTP Basic credentials, which caches successful matches so API clients
+     * aren't charged an adaptive hash on every request.
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${jotd.security.auth-cache.maximum-size:1000}") int maximumSize,
+                                           @Value("${jotd.security.auth-cache.ttl:5m}") Duration ttl) {
+        return new CachingPasswordEncoder(PasswordEncoderFactories.createDelegatingPasswordEncoder(), maximumSize, ttl);
+    }
+
+    /**
+     * API and actuator requests authenticate with HTTP Basic on every request, so they never create or use a session.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain apiFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher("/api/**", "/actuator/**")
+                .cors(CorsConfigurer::disable)
+                .csrf(CsrfConfigurer::disable)
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(authorize -> authorize
+                    .requestMatchers("/api/v1/jokes/today", "/api/v1/jokes/today/events").permitAll()
+                    .anyRequest().authenticated()
+                )
+                .httpBasic(Customizer.withDefaults());
+        return http.build();
+    }
+
     @Bean
+    @Order(2)
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
                 .cors(CorsConfigurer::disable)
                 .csrf(CsrfConfigurer::disable)
                 .authorizeHttpRequests(authorize -> authorize
                     .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").anonymous()
-                    .requestMatchers("/jotd", "/api/v1/jokes/today").permitAll()
+                    .requestMatchers("/jotd").permitAll()
                     .anyRequest().authenticated()
                 )
                 .httpBasic(Customizer.withDefaults())
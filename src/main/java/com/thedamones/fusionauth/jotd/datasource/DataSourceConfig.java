@@ -0,0 +1,68 @@
+package com.thedamones.fusionauth.jotd.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Routes read-only transactions to a pool of read replicas when any are configured with
+ * {@code jotd.datasource.replicas}.  All other transactions, and so every write, use the primary data source from
+ * {@code spring.datasource}.
+ * <p>
+ * Routing is done by a {@link LazyConnectionDataSourceProxy}, which doesn't fetch a connection until the first
+ * statement is executed, by which point the transaction has marked the connection read-only or not.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "jotd.datasource", name = "replicas[0].url")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    public ReplicaPoolDataSource replicaDataSource(DataSourceProperties dataSourceProperties, ReplicaProperties replicaProperties,
+                                                   HikariDataSource primaryDataSource) {
+        List<DataSource> replicas = IntStream.range(0, replicaProperties.replicas().size())
+                .mapToObj(i -> createReplica(i, replicaProperties.replicas().get(i), dataSourceProperties, replicaProperties))
+                .toList();
+        return new ReplicaPoolDataSource(replicas, primaryDataSource, replicaProperties.ejectionTime());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaPoolDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+
+    private DataSource createReplica(int index, ReplicaProperties.Replica replica, DataSourceProperties dataSourceProperties,
+                                     ReplicaProperties replicaProperties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica-" + index);
+        dataSource.setJdbcUrl(replica.url());
+        dataSource.setUsername(replica.username() != null ? replica.username() : dataSourceProperties.determineUsername());
+        dataSource.setPassword(replica.password() != null ? replica.password() : dataSourceProperties.determinePassword());
+        dataSource.setReadOnly(true);
+        dataSource.setConnectionTimeout(replicaProperties.connectionTimeout().toMillis());
+        // don't fail startup over an unavailable replica, it is ejected when a connection is first needed
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+}
@@ -0,0 +1,100 @@
+package com.thedamones.fusionauth.jotd.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out connections from a pool of replica data sources in round-robin order.  A replica which fails to provide
+ * a connection is ejected from the rotation for the ejection time, after which it is tried again.  If no replica can
+ * provide a connection, the connection is taken from the fallback (the primary) so reads keep working.
+ */
+public class ReplicaPoolDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaPoolDataSource.class);
+
+    private final List<Replica> replicas;
+    private final DataSource fallback;
+    private final long ejectionNanos;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaPoolDataSource(List<DataSource> replicas, DataSource fallback, Duration ejectionTime) {
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.fallback = fallback;
+        this.ejectionNanos = ejectionTime.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        long now = System.nanoTime();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.isEjected(now)) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                logger.warn("Ejecting replica {} for {} ms: {}", replica.dataSource, ejectionNanos / 1_000_000, e.getMessage());
+                replica.eject(System.nanoTime() + ejectionNanos);
+            }
+        }
+        logger.debug("No replica available, reading from the primary");
+        return fallback.getConnection();
+    }
+
+    /**
+     * Not supported: the replicas are connection pools, which only hand out connections for their configured
+     * credentials.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use the configured credentials");
+    }
+
+    /**
+     * Returns the number of replicas currently in the rotation.
+     */
+    public int getAvailableReplicas() {
+        long now = System.nanoTime();
+        return (int) replicas.stream().filter(replica -> !replica.isEjected(now)).count();
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static final class Replica {
+
+        private final DataSource dataSource;
+        private volatile long ejectedUntil;
+        private volatile boolean ejected;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private void eject(long until) {
+            ejectedUntil = until;
+            ejected = true;
+        }
+
+        private boolean isEjected(long now) {
+            return ejected && ejectedUntil - now > 0;
+        }
+    }
+}
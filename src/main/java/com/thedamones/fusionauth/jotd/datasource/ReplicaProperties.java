@@ -0,0 +1,23 @@
+package com.thedamones.fusionauth.jotd.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The read replicas read-only transactions are routed to.
+ *
+ * @param replicas the replica databases; the username and password default to those of the primary
+ * @param connectionTimeout how long to wait for a connection from a replica before ejecting it
+ * @param ejectionTime how long an ejected replica is skipped before it is tried again
+ */
+@ConfigurationProperties("jotd.datasource")
+public record ReplicaProperties(List<Replica> replicas,
+                                @DefaultValue("2s") Duration connectionTimeout,
+                                @DefaultValue("30s") Duration ejectionTime) {
+
+    public record Replica(String url, String username, String password) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.thedamones.fusionauth.jotd.demo;
+
+import java.util.List;
+
+/**
+ * Result of a CSV import.
+ *
+ * @param imported the number of jokes saved
+ * @param rejected the number of rows which could not be parsed, validated or saved
+ * @param errors the reasons rows were rejected in the order they were found, limited to
+ *               {@code jotd.import.max-reported-errors} entries
+ */
+public record CsvImportReport(long imported, long rejected, List<RowError> errors) {
+
+    public record RowError(long line, String message) {
+    }
+}
@@ -4,11 +4,16 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import com.joehxblog.opencsv.RecordMappingStrategy;
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
 import com.opencsv.bean.CsvToBean;
 import com.opencsv.bean.CsvToBeanBuilder;
+import com.opencsv.exceptions.CsvException;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -42,4 +47,57 @@ public class CsvParserService {
             throw new UncheckedIOException(e);
         }
     }
+
+    /**
+     * Parses the CSV file one row at a time, handing each record (or the reason the row couldn't be parsed) to the
+     * given handler as it is read, so the file is never held in memory as a whole.  Rows are reported by the line they
+     * start on, counting the header as line 1.
+     */
+    public <T extends Record> void streamRecords(MultipartFile file, Class<T> type, CsvRowHandler<T> handler) {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("CSV file is empty.");
+        }
+
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8);
+             CSVReader csvReader = new CSVReaderBuilder(reader)
+                     .withCSVParser(new CSVParserBuilder().withIgnoreLeadingWhiteSpace(true).build())
+                     .build()) {
+
+            RecordMappingStrategy<T> strategy = new RecordMappingStrategy<>(type);
+            strategy.captureHeader(csvReader);
+
+            // rows are read directly rather than through a CsvToBean, whose iterator reads the next row before
+            // returning the current one, so the reader's line count can be taken before each row
+            while (true) {
+                // a quoted field may span lines, so the row starts on the line after those already read
+                long line = csvReader.getLinesRead() + 1;
+                try {
+                    String[] row = csvReader.readNext();
+                    if (row == null) {
+                        break;
+                    }
+                    if (row.length == 1 && row[0].isEmpty()) {
+                        continue;
+                    }
+                    handler.accept(line, strategy.populateNewBean(row));
+                } catch (CsvException e) {
+                    handler.reject(line, e.getMessage());
+                }
+            }
+        } catch (CsvException e) {
+            throw new IllegalArgumentException("CSV file has an invalid header: " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Receives the rows of a CSV file as they are parsed by {@link #streamRecords}.
+     */
+    public interface CsvRowHandler<T> {
+
+        void accept(long line, T record);
+
+        void reject(long line, String message);
+    }
 }
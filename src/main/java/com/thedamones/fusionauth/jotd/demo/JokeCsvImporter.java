@@ -0,0 +1,118 @@
+package com.thedamones.fusionauth.jotd.demo;
+
+import com.thedamones.fusionauth.jotd.jokes.CreateJokeRecord;
+import com.thedamones.fusionauth.jotd.jokes.JokeDataIntegrityException;
+import com.thedamones.fusionauth.jotd.jokes.JokeDataOperationException;
+import com.thedamones.fusionauth.jotd.jokes.JokeService;
+import com.thedamones.fusionauth.jotd.jokes.JokeServiceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports jokes from a CSV file.  Rows are parsed and validated one at a time and saved in chunks, each chunk in its
+ * own transaction, so memory use doesn't grow with the size of the file.  Rows which can't be imported are reported
+ * rather than failing the whole upload.
+ */
+@Service
+@Profile("demo")
+public class JokeCsvImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(JokeCsvImporter.class);
+
+    private final CsvParserService csvParserService;
+    private final JokeService jokeService;
+    private final Validator validator;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    public JokeCsvImporter(CsvParserService csvParserService, JokeService jokeService, Validator validator,
+                           @Value("${jotd.import.chunk-size:1000}") int chunkSize,
+                           @Value("${jotd.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.csvParserService = csvParserService;
+        this.jokeService = jokeService;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public CsvImportReport importJokes(MultipartFile file) {
+        Import jokeImport = new Import();
+        csvParserService.streamRecords(file, CreateJokeRecord.class, jokeImport);
+        jokeImport.saveChunk();
+        logger.info("Imported {} jokes from '{}', rejected {} rows", jokeImport.imported, file.getOriginalFilename(), jokeImport.rejected);
+        return new CsvImportReport(jokeImport.imported, jokeImport.rejected, List.copyOf(jokeImport.errors));
+    }
+
+    private class Import implements CsvParserService.CsvRowHandler<CreateJokeRecord> {
+
+        private final List<CreateJokeRecord> chunk = new ArrayList<>(chunkSize);
+        private final List<Long> chunkLines = new ArrayList<>(chunkSize);
+        private final List<CsvImportReport.RowError> errors = new ArrayList<>();
+        private long imported;
+        private long rejected;
+
+        @Override
+        public void accept(long line, CreateJokeRecord record) {
+            Set<ConstraintViolation<CreateJokeRecord>> violations = validator.validate(record);
+            if (!violations.isEmpty()) {
+                reject(line, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                return;
+            }
+            chunk.add(record);
+            chunkLines.add(line);
+            if (chunk.size() >= chunkSize) {
+                saveChunk();
+            }
+        }
+
+        @Override
+        public void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new CsvImportReport.RowError(line, message));
+            }
+        }
+
+        private void saveChunk() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                imported += jokeService.addJokes(chunk).size();
+            } catch (JokeDataIntegrityException | JokeDataOperationException | JokeServiceException e) {
+                // the whole chunk was rolled back, so save its rows one at a time to find the ones at fault
+                logger.debug("Chunk of {} jokes failed, retrying row by row", chunk.size(), e);
+                for (int index = 0; index < chunk.size(); index++) {
+                    saveRow(chunkLines.get(index), chunk.get(index));
+                }
+            }
+            chunk.clear();
+            chunkLines.clear();
+        }
+
+        private void saveRow(long line, CreateJokeRecord record) {
+            try {
+                jokeService.addJoke(record);
+                imported++;
+            } catch (JokeDataIntegrityException e) {
+                reject(line, "A joke for date '" + record.date() + "' already exists");
+            } catch (JokeDataOperationException | JokeServiceException e) {
+                reject(line, e.getMessage());
+            }
+        }
+    }
+}
@@ -1,62 +1,81 @@
 package com.thedamones.fusionauth.jotd.demo;
 
-import com.thedamones.fusionauth.jotd.jokes.CreateJokeRecord;
-import com.thedamones.fusionauth.jotd.jokes.JokeRecord;
+import com.thedamones.fusionauth.jotd.jokes.JokeOfTheDay;
 import com.thedamones.fusionauth.jotd.jokes.JokeService;
+import com.thedamones.fusionauth.jotd.web.PrecompressedBody;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.context.annotation.Profile;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
-import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.util.List;
 
 @Controller
 @RequestMapping("/jotd")
 @Profile("demo")
 public class JokeOfTheDayController {
 
+    private static final MediaType TEXT_HTML_UTF8 = new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8);
+
     private final JokeService jokeService;
-    private final CsvParserService csvParserService;
+    private final JokeCsvImporter jokeCsvImporter;
+    private final JokeOfTheDayPageCache pageCache;
 
-    public JokeOfTheDayController(JokeService jokeService, CsvParserService csvParserService) {
+    public JokeOfTheDayController(JokeService jokeService, JokeCsvImporter jokeCsvImporter, JokeOfTheDayPageCache pageCache) {
         this.jokeService = jokeService;
-        this.csvParserService = csvParserService;
+        this.jokeCsvImporter = jokeCsvImporter;
+        this.pageCache = pageCache;
     }
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @ResponseBody
-    public ResponseEntity<String> uploadJokesFromCsv(@RequestParam("csv") @NotNull MultipartFile file) {
-        List<CreateJokeRecord> jokes = csvParserService.parseRecords(file, CreateJokeRecord.class);
-        jokes.forEach(jokeService::addJoke);
-        return ResponseEntity.ok("Jokes uploaded successfully.");
+    public ResponseEntity<CsvImportReport> uploadJokesFromCsv(@RequestParam("csv") @NotNull MultipartFile file) {
+        return ResponseEntity.ok(jokeCsvImporter.importJokes(file));
     }
 
     @GetMapping
-    public String jotd(Model model) {
-        JokeRecord joke = jokeService.getJokeOfTheDay();
-        model.addAttribute("date", LocalDate.now());
-        model.addAttribute("joke", joke);
-        return "jotd";
+    public ResponseEntity<byte[]> jotd(ServletWebRequest request) {
+        JokeOfTheDay jokeOfTheDay = jokeService.getJokeOfTheDaySnapshot();
+        if (jokeOfTheDay.isStale()) {
+            request.getResponse().setHeader(HttpHeaders.AGE, Long.toString(jokeOfTheDay.staleness().toSeconds()));
+            return toResponse(pageCache.getPage(jokeOfTheDay), CacheControl.noCache().cachePublic(), request);
+        }
+        return toResponse(pageCache.getPage(jokeOfTheDay), CacheControl.maxAge(jokeOfTheDay.timeUntilRollover()).cachePublic(), request);
     }
 
     @GetMapping("/{date}")
-    public String jotd(@PathVariable LocalDate date, Model model) {
-        Page<JokeRecord> jokes = jokeService.getJokes(date, PageRequest.ofSize(1));
-        JokeRecord joke = jokes.stream().filter(j -> date.equals(j.date())).findFirst().orElse(null);
-        model.addAttribute("date", date);
-        model.addAttribute("joke", joke);
-        return "jotd";
+    public ResponseEntity<byte[]> jotd(@PathVariable LocalDate date, ServletWebRequest request) {
+        return toResponse(pageCache.getPage(date), CacheControl.empty(), request);
+    }
+
+    /**
+     * Writes the pre-rendered page, gzipped if the client accepts it, unless the client's copy is still current.
+     */
+    private static ResponseEntity<byte[]> toResponse(JokeOfTheDayPage page, CacheControl cacheControl, ServletWebRequest request) {
+        boolean gzip = PrecompressedBody.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        // set before checking so they're also sent with a 304
+        if (cacheControl.getHeaderValue() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        }
+        request.getResponse().setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        boolean notModified = page.lastModified() != null
+                ? request.checkNotModified(page.eTag(gzip), page.lastModified().toEpochMilli())
+                : request.checkNotModified(page.eTag(gzip));
+        if (notModified) {
+            return null;
+        }
+        return page.body().toResponse(ResponseEntity.ok().contentType(TEXT_HTML_UTF8), gzip);
     }
 }
@@ -0,0 +1,33 @@
+package com.thedamones.fusionauth.jotd.demo;
+
+import com.thedamones.fusionauth.jotd.jokes.JokeRecord;
+import com.thedamones.fusionauth.jotd.web.PrecompressedBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * A rendered {@code jotd} page, encoded and compressed ahead of time so serving it is just a matter of writing bytes.
+ *
+ * @param date the date the page shows the joke for
+ * @param jokeId the id of the joke shown, or {@code null} if there is no joke for the date
+ * @param body the page encoded as UTF-8
+ * @param eTag a strong ETag for the uncompressed page
+ * @param gzipETag a strong ETag for the gzipped page
+ * @param lastModified when the page last changed, or {@code null} if unknown
+ */
+record JokeOfTheDayPage(LocalDate date, UUID jokeId, PrecompressedBody body, String eTag, String gzipETag, Instant lastModified) {
+
+    static JokeOfTheDayPage of(LocalDate date, JokeRecord joke, String html, Instant lastModified) {
+        // the page only depends on the date and the joke, so its version identifies the page
+        String eTag = "\"jotd." + date + (joke != null ? "." + joke.id() + "." + joke.version() : ".none") + "\"";
+        return new JokeOfTheDayPage(date, joke != null ? joke.id() : null, PrecompressedBody.of(html.getBytes(StandardCharsets.UTF_8)),
+                eTag, PrecompressedBody.eTag(eTag, true), lastModified);
+    }
+
+    String eTag(boolean gzipped) {
+        return gzipped ? gzipETag : eTag;
+    }
+}
@@ -0,0 +1,125 @@
+package com.thedamones.fusionauth.jotd.demo;
+
+import com.thedamones.fusionauth.jotd.jokes.JokeCatalogSnapshot;
+import com.thedamones.fusionauth.jotd.jokes.JokeChangeEvent;
+import com.thedamones.fusionauth.jotd.jokes.JokeDateMatch;
+import com.thedamones.fusionauth.jotd.jokes.JokeOfTheDay;
+import com.thedamones.fusionauth.jotd.jokes.JokeRecord;
+import com.thedamones.fusionauth.jotd.jokes.JokeService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Caches the rendered {@code jotd} pages, so the template is only rendered when the joke shown changes.
+ * <p>
+ * The page for today is rendered from {@link JokeService#getJokeOfTheDaySnapshot()} and re-rendered whenever the
+ * service replaces that snapshot, i.e. at rollover and when the jokes for today or tomorrow change.  The pages for
+ * other dates are kept for the most recently requested {@code jotd.demo.page-cache.maximum-size} dates and dropped
+ * when a {@link JokeChangeEvent} touches their date or joke.
+ */
+@Component
+@Profile("demo")
+public class JokeOfTheDayPageCache {
+
+    static final String TEMPLATE = "jotd";
+
+    private final JokeService jokeService;
+    private final ITemplateEngine templateEngine;
+    private final Map<LocalDate, JokeOfTheDayPage> pages;
+    // bumped on every change, so a page rendered concurrently with a change isn't cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile TodayPage todayPage;
+
+    private record TodayPage(JokeOfTheDay jokeOfTheDay, JokeOfTheDayPage page) {
+    }
+
+    public JokeOfTheDayPageCache(JokeService jokeService, ITemplateEngine templateEngine,
+                                 @Value("${jotd.demo.page-cache.maximum-size:1000}") int maximumSize) {
+        this.jokeService = jokeService;
+        this.templateEngine = templateEngine;
+        // access ordered, so the least recently requested date is evicted first
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LocalDate, JokeOfTheDayPage> eldest) {
+                return size() > maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the page for the joke of the day, as returned by {@link JokeService#getJokeOfTheDaySnapshot()}.
+     */
+    JokeOfTheDayPage getPage(JokeOfTheDay jokeOfTheDay) {
+        TodayPage current = todayPage;
+        if (current != null && current.jokeOfTheDay() == jokeOfTheDay) {
+            return current.page();
+        }
+        JokeOfTheDayPage page = render(jokeOfTheDay.date(), jokeOfTheDay.joke(), jokeOfTheDay.lastModified());
+        todayPage = new TodayPage(jokeOfTheDay, page);
+        return page;
+    }
+
+    /**
+     * Returns the page for the joke stored for the date.
+     */
+    JokeOfTheDayPage getPage(LocalDate date) {
+        synchronized (pages) {
+            JokeOfTheDayPage page = pages.get(date);
+            if (page != null) {
+                return page;
+            }
+        }
+        long renderedGeneration = generation.get();
+        JokeRecord joke = jokeService.findJoke(date, JokeDateMatch.EXACT).orElse(null);
+        JokeOfTheDayPage page = render(date, joke, joke != null ? joke.lastModified() : null);
+        synchronized (pages) {
+            if (generation.get() == renderedGeneration) {
+                pages.put(date, page);
+            }
+        }
+        return page;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJokeChange(JokeChangeEvent change) {
+        Set<LocalDate> dates = change.saved().stream().map(JokeRecord::date).collect(Collectors.toSet());
+        Set<UUID> ids = change.saved().stream().map(JokeRecord::id).collect(Collectors.toSet());
+        ids.addAll(change.removed());
+        synchronized (pages) {
+            generation.incrementAndGet();
+            // a joke moved to another date also has to be removed from the page for its old date
+            pages.values().removeIf(page -> dates.contains(page.date()) || (page.jokeId() != null && ids.contains(page.jokeId())));
+        }
+    }
+
+    @EventListener
+    public void onCatalogSnapshot(JokeCatalogSnapshot catalog) {
+        synchronized (pages) {
+            generation.incrementAndGet();
+            pages.clear();
+        }
+    }
+
+    private JokeOfTheDayPage render(LocalDate date, JokeRecord joke, Instant lastModified) {
+        Context context = new Context(Locale.getDefault());
+        context.setVariable("date", date);
+        context.setVariable("joke", joke);
+        return JokeOfTheDayPage.of(date, joke, templateEngine.process(TEMPLATE, context), lastModified);
+    }
+}
@@ -2,18 +2,22 @@ package com.thedamones.fusionauth.jotd.jokes;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.annotations.UuidGenerator;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.UUID;
 
 @Entity
 public class Joke {
 
+    // time-ordered, so new rows are appended to the primary key index; the uuid column type is 16 bytes
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
     private UUID id;
 
     @Column(unique = true)
@@ -23,6 +27,13 @@ public class Joke {
 
     private String description;
 
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
+    @UpdateTimestamp
+    private Instant lastModified;
+
     /**
      * Default constructor for JPA.
      */
@@ -60,4 +71,20 @@ public class Joke {
     public void setDescription(String description) {
         this.description = description;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
 }
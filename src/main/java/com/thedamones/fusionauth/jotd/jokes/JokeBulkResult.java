@@ -0,0 +1,9 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+/**
+ * The outcome of a change to every joke in a date range.
+ *
+ * @param jokes the number of jokes changed
+ */
+public record JokeBulkResult(int jokes) {
+}
@@ -0,0 +1,339 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Read-only snapshot of the whole joke catalog in a compact binary file which is memory-mapped rather than read, so
+ * opening it takes constant time and the catalog lives in the page cache rather than on the heap.
+ * <p>
+ * The file holds a header, then fixed-width columns with one entry per joke in date order (the epoch day, the two
+ * halves of the id, the version and last-modified time, and the offset and length of the joke and description), then
+ * the positions of the jokes in id order, and finally the UTF-8 bytes of every joke and description.  Lookups by
+ * date or id are binary searches over the mapped columns, and strings are only decoded for the jokes returned.
+ * <p>
+ * Snapshots are written with {@link #write(Path, Stream)}, which replaces the file atomically, so an open snapshot
+ * keeps reading the file it mapped.  The mapped buffers are only read with absolute gets, so a snapshot can be shared
+ * between threads.  A snapshot is limited to 2GB.
+ */
+public final class JokeCatalogSnapshot {
+
+    private static final int MAGIC = 0x4A4F5444; // "JOTD"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    // five long columns (epoch day, id high and low bits, version, last modified) and five int columns (joke and
+    // description offset and length, id order)
+    private static final int ENTRY_SIZE = 5 * Long.BYTES + 5 * Integer.BYTES;
+    private static final long NULL_LONG = Long.MIN_VALUE;
+    private static final int NULL_LENGTH = -1;
+
+    private final Instant createdAt;
+    private final int size;
+    private final LongBuffer epochDays;
+    private final LongBuffer mostSignificantBits;
+    private final LongBuffer leastSignificantBits;
+    private final LongBuffer versions;
+    private final LongBuffer lastModified;
+    private final IntBuffer jokeOffsets;
+    private final IntBuffer jokeLengths;
+    private final IntBuffer descriptionOffsets;
+    private final IntBuffer descriptionLengths;
+    private final IntBuffer idOrder;
+    private final ByteBuffer strings;
+
+    private JokeCatalogSnapshot(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a joke catalog snapshot");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported joke catalog snapshot version " + buffer.getInt(4));
+        }
+        size = buffer.getInt(8);
+        createdAt = Instant.ofEpochMilli(buffer.getLong(16));
+        long stringsSize = buffer.getLong(24);
+        if (size < 0 || HEADER_SIZE + (long) size * ENTRY_SIZE + stringsSize != buffer.capacity()) {
+            throw new IOException("Truncated joke catalog snapshot");
+        }
+        int offset = HEADER_SIZE;
+        int longColumn = size * Long.BYTES;
+        int intColumn = size * Integer.BYTES;
+        epochDays = buffer.slice(offset, longColumn).asLongBuffer();
+        mostSignificantBits = buffer.slice(offset += longColumn, longColumn).asLongBuffer();
+        leastSignificantBits = buffer.slice(offset += longColumn, longColumn).asLongBuffer();
+        versions = buffer.slice(offset += longColumn, longColumn).asLongBuffer();
+        lastModified = buffer.slice(offset += longColumn, longColumn).asLongBuffer();
+        jokeOffsets = buffer.slice(offset += longColumn, intColumn).asIntBuffer();
+        jokeLengths = buffer.slice(offset += intColumn, intColumn).asIntBuffer();
+        descriptionOffsets = buffer.slice(offset += intColumn, intColumn).asIntBuffer();
+        descriptionLengths = buffer.slice(offset += intColumn, intColumn).asIntBuffer();
+        idOrder = buffer.slice(offset += intColumn, intColumn).asIntBuffer();
+        strings = buffer.slice(offset + intColumn, (int) stringsSize);
+    }
+
+    /**
+     * Maps the snapshot in the file.
+     *
+     * @throws IOException if the file can't be read or isn't a complete snapshot
+     */
+    public static JokeCatalogSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Joke catalog snapshot is too large to map");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new JokeCatalogSnapshot(buffer);
+        }
+    }
+
+    /**
+     * Writes a snapshot of the jokes, which must be in ascending date order, to the file.  The snapshot is written to
+     * a temporary file which then replaces the file, so readers never see a partial snapshot.  The strings are
+     * spooled to a second temporary file while the jokes are read, so only the fixed-width columns are held in memory.
+     */
+    public static void write(Path path, Stream<JokeRecord> jokes) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path stringsFile = Files.createTempFile(directory, path.getFileName().toString(), ".strings");
+        Path snapshotFile = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try (FileChannel stringsChannel = FileChannel.open(stringsFile, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE)) {
+            Columns columns = new Columns();
+            for (JokeRecord joke : (Iterable<JokeRecord>) jokes::iterator) {
+                columns.add(joke, stringsChannel);
+            }
+            try (FileChannel snapshotChannel = FileChannel.open(snapshotFile, StandardOpenOption.WRITE)) {
+                columns.write(snapshotChannel, stringsChannel.size());
+                for (long position = 0; position < stringsChannel.size(); ) {
+                    position += stringsChannel.transferTo(position, stringsChannel.size() - position, snapshotChannel);
+                }
+                snapshotChannel.force(true);
+            }
+            Files.move(snapshotFile, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        finally {
+            Files.deleteIfExists(snapshotFile);
+        }
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Optional<JokeRecord> findById(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int position = idOrder.get(mid);
+            int comparison = Long.compare(mostSignificantBits.get(position), msb);
+            if (comparison == 0) {
+                comparison = Long.compare(leastSignificantBits.get(position), lsb);
+            }
+            if (comparison < 0) {
+                low = mid + 1;
+            }
+            else if (comparison > 0) {
+                high = mid - 1;
+            }
+            else {
+                return Optional.of(joke(position));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public Optional<JokeRecord> find(LocalDate date, JokeDateMatch match) {
+        long epochDay = date.toEpochDay();
+        int i = lowerBound(epochDay);
+        if (i < size && epochDays.get(i) == epochDay) {
+            return Optional.of(joke(i));
+        }
+        int position = match.select(epochDay, i, epochDays::get, size);
+        return position < 0 ? Optional.empty() : Optional.of(joke(position));
+    }
+
+    /**
+     * Returns up to {@code limit} jokes between the given (inclusive) dates in date order.
+     */
+    public List<JokeRecord> between(LocalDate from, LocalDate to, int limit) {
+        int start = lowerBound(from.toEpochDay());
+        int end = (int) Math.min(lowerBound(to.toEpochDay() + 1), (long) start + limit);
+        List<JokeRecord> jokes = new ArrayList<>(Math.max(end - start, 0));
+        for (int i = start; i < end; i++) {
+            jokes.add(joke(i));
+        }
+        return jokes;
+    }
+
+    private int lowerBound(long epochDay) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays.get(mid) < epochDay) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private JokeRecord joke(int i) {
+        long version = versions.get(i);
+        long modified = lastModified.get(i);
+        return new JokeRecord(
+                new UUID(mostSignificantBits.get(i), leastSignificantBits.get(i)),
+                LocalDate.ofEpochDay(epochDays.get(i)),
+                string(jokeOffsets.get(i), jokeLengths.get(i)),
+                string(descriptionOffsets.get(i), descriptionLengths.get(i)),
+                version == NULL_LONG ? null : version,
+                modified == NULL_LONG ? null : Instant.ofEpochMilli(modified));
+    }
+
+    private String string(int offset, int length) {
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        strings.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The fixed-width columns of a snapshot being written, grown as jokes are added.
+     */
+    private static class Columns {
+
+        private int size;
+        private long[] epochDays = new long[1024];
+        private long[] mostSignificantBits = new long[1024];
+        private long[] leastSignificantBits = new long[1024];
+        private long[] versions = new long[1024];
+        private long[] lastModified = new long[1024];
+        private int[] jokeOffsets = new int[1024];
+        private int[] jokeLengths = new int[1024];
+        private int[] descriptionOffsets = new int[1024];
+        private int[] descriptionLengths = new int[1024];
+
+        void add(JokeRecord joke, FileChannel strings) throws IOException {
+            long epochDay = joke.date().toEpochDay();
+            if (size > 0 && epochDay <= epochDays[size - 1]) {
+                throw new IllegalArgumentException("Jokes are not in ascending date order at " + joke.date());
+            }
+            if (size == epochDays.length) {
+                grow();
+            }
+            epochDays[size] = epochDay;
+            mostSignificantBits[size] = joke.id().getMostSignificantBits();
+            leastSignificantBits[size] = joke.id().getLeastSignificantBits();
+            versions[size] = joke.version() == null ? NULL_LONG : joke.version();
+            lastModified[size] = joke.lastModified() == null ? NULL_LONG : joke.lastModified().toEpochMilli();
+            jokeOffsets[size] = offset(strings);
+            jokeLengths[size] = append(joke.joke(), strings);
+            descriptionOffsets[size] = offset(strings);
+            descriptionLengths[size] = append(joke.description(), strings);
+            size++;
+        }
+
+        void write(FileChannel channel, long stringsSize) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            buffer.putInt(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putInt(size)
+                    .putInt(0)
+                    .putLong(System.currentTimeMillis())
+                    .putLong(stringsSize);
+            for (long[] column : new long[][] { epochDays, mostSignificantBits, leastSignificantBits, versions, lastModified }) {
+                for (int i = 0; i < size; i++) {
+                    flushIfFull(buffer, channel, Long.BYTES);
+                    buffer.putLong(column[i]);
+                }
+            }
+            int[] idOrder = IntStream.range(0, size)
+                    .boxed()
+                    .sorted(Comparator.<Integer>comparingLong(i -> mostSignificantBits[i]).thenComparingLong(i -> leastSignificantBits[i]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            for (int[] column : new int[][] { jokeOffsets, jokeLengths, descriptionOffsets, descriptionLengths, idOrder }) {
+                for (int i = 0; i < size; i++) {
+                    flushIfFull(buffer, channel, Integer.BYTES);
+                    buffer.putInt(column[i]);
+                }
+            }
+            flush(buffer, channel);
+        }
+
+        private void grow() {
+            int capacity = size * 2;
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            mostSignificantBits = Arrays.copyOf(mostSignificantBits, capacity);
+            leastSignificantBits = Arrays.copyOf(leastSignificantBits, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            lastModified = Arrays.copyOf(lastModified, capacity);
+            jokeOffsets = Arrays.copyOf(jokeOffsets, capacity);
+            jokeLengths = Arrays.copyOf(jokeLengths, capacity);
+            descriptionOffsets = Arrays.copyOf(descriptionOffsets, capacity);
+            descriptionLengths = Arrays.copyOf(descriptionLengths, capacity);
+        }
+
+        private static int offset(FileChannel strings) throws IOException {
+            if (strings.size() > Integer.MAX_VALUE) {
+                throw new IOException("Joke catalog is too large for a snapshot");
+            }
+            return (int) strings.size();
+        }
+
+        private static int append(String string, FileChannel strings) throws IOException {
+            if (string == null) {
+                return NULL_LENGTH;
+            }
+            ByteBuffer bytes = StandardCharsets.UTF_8.encode(string);
+            int length = bytes.remaining();
+            while (bytes.hasRemaining()) {
+                strings.write(bytes);
+            }
+            return length;
+        }
+
+        private static void flushIfFull(ByteBuffer buffer, FileChannel channel, int needed) throws IOException {
+            if (buffer.remaining() < needed) {
+                flush(buffer, channel);
+            }
+        }
+
+        private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
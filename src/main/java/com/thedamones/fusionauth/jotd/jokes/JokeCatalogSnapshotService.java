@@ -0,0 +1,213 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Writes and serves {@link JokeCatalogSnapshot}s of the joke catalog.
+ * <p>
+ * With {@code jotd.snapshot.write} the catalog is written to {@code jotd.snapshot.path} once the application has
+ * started and again after each committed change.  Writes happen on a background thread, and changes committed while
+ * a write is waiting to start are written together.
+ * <p>
+ * With {@code jotd.snapshot.serve} the snapshot at {@code jotd.snapshot.path} is mapped at startup and re-mapped
+ * whenever the file is replaced, which is checked every {@code jotd.snapshot.refresh-interval}.  {@link JokeService}
+ * answers lookups of single jokes and dates from the current snapshot instead of the database.  Each snapshot mapped
+ * after startup is published as an application event.
+ * <p>
+ * With both, as in the {@code snapshot} profile, a snapshot is only served while it includes every committed change.
+ * From the moment a change is about to commit until a snapshot including it has been mapped, and until this process
+ * has written its first snapshot, {@link #getSnapshot()} is empty and {@link JokeService} reads from the
+ * {@link JokeRecordCache} and the database instead, so a joke can be read back as soon as it has been written.  A
+ * process which only serves a snapshot written elsewhere gives up read-after-write: a joke added or changed on the
+ * writer isn't found on it until the replaced file has been mapped.
+ */
+@Service
+public class JokeCatalogSnapshotService implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(JokeCatalogSnapshotService.class);
+
+    private final JokeRepository jokeRepository;
+    private final TransactionTemplate transaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path path;
+    private final boolean write;
+    private final boolean serve;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean writePending = new AtomicBoolean();
+    // changes which have started to commit, and of those the ones which have committed or rolled back
+    private final AtomicLong changesStarted = new AtomicLong();
+    private final AtomicLong changesCompleted = new AtomicLong();
+
+    private volatile JokeCatalogSnapshot snapshot;
+    // the completed changes which the current snapshot, and the file last written, include; -1 if not written here
+    private volatile long snapshotChanges = -1;
+    private long writtenChanges = -1;
+    // identifies the file the current snapshot was mapped from, which changes whenever the file is replaced
+    private Object snapshotFileKey;
+
+    public JokeCatalogSnapshotService(JokeRepository jokeRepository, PlatformTransactionManager transactionManager,
+                                      ApplicationEventPublisher eventPublisher,
+                                      @Value("${jotd.snapshot.path:./target/data/jokes.snapshot}") Path path,
+                                      @Value("${jotd.snapshot.write:false}") boolean write,
+                                      @Value("${jotd.snapshot.serve:false}") boolean serve,
+                                      @Value("${jotd.snapshot.refresh-interval:10s}") Duration refreshInterval) {
+        this.jokeRepository = jokeRepository;
+        // not read-only, so the catalog is read from the primary database and includes the change being written
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.path = path;
+        this.write = write;
+        this.serve = serve;
+        this.executor = write || serve ? Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("joke-catalog-snapshot")
+                .daemon()
+                .factory()) : null;
+        if (serve) {
+            // mapping the snapshot is cheap, so do it straight away rather than serving from the database until ready
+            refresh(false);
+            executor.scheduleWithFixedDelay(() -> refresh(true), refreshInterval.toMillis(), refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Returns the snapshot to serve from, if serving from snapshots and one has been mapped.  When also writing
+     * snapshots it is only returned if it includes every change which has started to commit.
+     */
+    public Optional<JokeCatalogSnapshot> getSnapshot() {
+        // read before the snapshot, which is replaced first, so a count is never paired with an older snapshot
+        long changes = snapshotChanges;
+        JokeCatalogSnapshot current = snapshot;
+        if (write && changes != changesStarted.get()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(current);
+    }
+
+    public boolean isServing() {
+        return serve;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (write) {
+            scheduleWrite();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onJokeChange(JokeChangeEvent change) {
+        if (!write) {
+            return;
+        }
+        // stop serving the current snapshot before the change becomes visible
+        changesStarted.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    onChangeCompleted();
+                }
+            });
+        }
+        else {
+            onChangeCompleted();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void onChangeCompleted() {
+        // also after a rollback, so that the snapshot rewritten without the change is served again
+        changesCompleted.incrementAndGet();
+        scheduleWrite();
+    }
+
+    private void scheduleWrite() {
+        if (writePending.compareAndSet(false, true)) {
+            executor.execute(this::writeSnapshot);
+        }
+    }
+
+    private void writeSnapshot() {
+        // cleared before reading the catalog so a change committed from here on schedules another write
+        writePending.set(false);
+        // every change counted here has committed before the catalog is read below
+        long changes = changesCompleted.get();
+        try {
+            long start = System.nanoTime();
+            transaction.executeWithoutResult(status -> {
+                try (Stream<JokeRecord> jokes = jokeRepository.streamJokeRecords(null, null)) {
+                    JokeCatalogSnapshot.write(path, jokes);
+                } catch (IOException e) {
+                    throw new JokeServiceException("Exception while writing catalog snapshot to " + path, e);
+                }
+            });
+            logger.info("Wrote catalog snapshot to {} in {}ms", path, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            writtenChanges = changes;
+        } catch (RuntimeException e) {
+            logger.warn("Failed to write catalog snapshot to {}", path, e);
+            return;
+        }
+        if (serve) {
+            refresh(true);
+        }
+    }
+
+    private synchronized void refresh(boolean publish) {
+        try {
+            Object fileKey = fileKey();
+            if (Objects.equals(fileKey, snapshotFileKey)) {
+                return;
+            }
+            JokeCatalogSnapshot refreshed = JokeCatalogSnapshot.open(path);
+            snapshot = refreshed;
+            snapshotChanges = writtenChanges;
+            snapshotFileKey = fileKey;
+            logger.info("Serving catalog snapshot of {} jokes created at {}", refreshed.size(), refreshed.getCreatedAt());
+            if (publish) {
+                eventPublisher.publishEvent(refreshed);
+            }
+        } catch (NoSuchFileException e) {
+            logger.debug("No catalog snapshot at {} yet", path);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to map catalog snapshot at {}", path, e);
+        }
+    }
+
+    private Object fileKey() throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return attributes.fileKey() != null ? attributes.fileKey() + "@" + attributes.lastModifiedTime() : attributes.lastModifiedTime();
+    }
+}
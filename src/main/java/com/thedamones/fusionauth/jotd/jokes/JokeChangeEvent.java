@@ -0,0 +1,26 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Published by {@link JokeService} when jokes are added, updated or removed.  Listeners maintaining derived state
+ * (indexes, caches) should use {@code @TransactionalEventListener} so they only see committed changes.
+ *
+ * @param saved the jokes which were added or updated, in their new state
+ * @param removed the ids of the jokes which were removed
+ */
+public record JokeChangeEvent(List<JokeRecord> saved, List<UUID> removed) {
+
+    public static JokeChangeEvent saved(List<JokeRecord> jokes) {
+        return new JokeChangeEvent(jokes, List.of());
+    }
+
+    public static JokeChangeEvent saved(JokeRecord joke) {
+        return saved(List.of(joke));
+    }
+
+    public static JokeChangeEvent removed(UUID id) {
+        return new JokeChangeEvent(List.of(), List.of(id));
+    }
+}
@@ -1,41 +1,185 @@
 package com.thedamones.fusionauth.jotd.jokes;
 
+import com.thedamones.fusionauth.jotd.web.PrecompressedBody;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.Link;
+import org.springframework.hateoas.MediaTypes;
 import org.springframework.hateoas.PagedModel;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.ProblemDetail;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
 import java.util.UUID;
 
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
 @RestController
 @RequestMapping("/api/v1/jokes")
 public class JokeController {
 
+    static final String TIME_ZONE = "Time-Zone";
+
+    private static final List<MediaType> JOKE_OF_THE_DAY_CONTENT_TYPES = List.of(MediaTypes.HAL_JSON, MediaType.APPLICATION_JSON);
+
     private final JokeService jokeService;
     private final JokeModelAssembler jokeModelAssembler;
     private final PagedResourcesAssembler<JokeRecord> pagedResourcesAssembler;
+    private final JokeExporter jokeExporter;
+    private final JokeOfTheDayResponseCache jokeOfTheDayResponseCache;
 
-    public JokeController(JokeService jokeService, JokeModelAssembler jokeModelAssembler, PagedResourcesAssembler<JokeRecord> pagedResourcesAssembler) {
+    public JokeController(JokeService jokeService, JokeModelAssembler jokeModelAssembler, PagedResourcesAssembler<JokeRecord> pagedResourcesAssembler,
+                          JokeExporter jokeExporter, JokeOfTheDayResponseCache jokeOfTheDayResponseCache) {
         this.jokeService = jokeService;
         this.jokeModelAssembler = jokeModelAssembler;
         this.pagedResourcesAssembler = pagedResourcesAssembler;
+        this.jokeExporter = jokeExporter;
+        this.jokeOfTheDayResponseCache = jokeOfTheDayResponseCache;
     }
 
+    /**
+     * Returns a page of jokes.  If {@code fields} is given, e.g. {@code fields=id,date}, only those fields are read and
+     * the others are {@code null}.
+     */
     @GetMapping
     @SecurityRequirement(name = "basicAuth")
-    public PagedModel<EntityModel<JokeRecord>> getJokes(@RequestParam(required = false) LocalDate date, @ParameterObject Pageable pageable) {
-        return pagedResourcesAssembler.toModel(jokeService.getJokes(date, pageable), jokeModelAssembler);
+    public PagedModel<EntityModel<JokeRecord>> getJokes(@RequestParam(required = false) LocalDate date,
+                                                        @RequestParam(required = false) JokeFields fields,
+                                                        @ParameterObject Pageable pageable) {
+        Page<JokeRecord> jokes = jokeService.getJokes(date, fields != null ? fields : JokeFields.ALL, pageable);
+        return pagedResourcesAssembler.toModel(jokes, jokeModelAssembler.forPage(jokes));
+    }
+
+    /**
+     * Returns a slice of jokes in date order using keyset pagination.  The {@code next} and {@code prev} links carry
+     * opaque cursors for the following and preceding slices.
+     */
+    @GetMapping("/scroll")
+    @SecurityRequirement(name = "basicAuth")
+    public CollectionModel<EntityModel<JokeRecord>> scrollJokes(@RequestParam(required = false) LocalDate date,
+                                                                @RequestParam(required = false) JokeCursor after,
+                                                                @RequestParam(required = false) JokeCursor before,
+                                                                @RequestParam(defaultValue = "20") @Min(1) @Max(2000) int size) {
+        JokeSlice slice = jokeService.scrollJokes(date, after, before, size);
+        CollectionModel<EntityModel<JokeRecord>> model = jokeModelAssembler.forPage(slice.jokes())
+                .toCollectionModel(slice.jokes())
+                .add(linkTo(methodOn(JokeController.class).scrollJokes(date, after, before, size)).withSelfRel().expand());
+        slice.getNext()
+                .map(next -> linkTo(methodOn(JokeController.class).scrollJokes(date, next, null, size)).withRel(IanaLinkRelations.NEXT).expand())
+                .ifPresent(model::add);
+        slice.getPrevious()
+                .map(previous -> linkTo(methodOn(JokeController.class).scrollJokes(date, null, previous, size)).withRel(IanaLinkRelations.PREV).expand())
+                .ifPresent(model::add);
+        return model;
+    }
+
+    /**
+     * Streams every joke, optionally limited to the given (inclusive) date range, in date order as NDJSON or CSV.
+     */
+    @GetMapping("/export")
+    @SecurityRequirement(name = "basicAuth")
+    public ResponseEntity<StreamingResponseBody> exportJokes(@RequestParam(required = false) LocalDate from,
+                                                             @RequestParam(required = false) LocalDate to,
+                                                             @RequestParam(defaultValue = "NDJSON") JokeExportFormat format) {
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("jokes." + format.getExtension())
+                        .build()
+                        .toString())
+                .body(jokeExporter.export(from, to, format));
+    }
+
+    /**
+     * Returns the joke matching the date: the joke on the date, or with {@code match} the closest joke on or before,
+     * on or after, or either side of it.
+     */
+    @GetMapping("/on/{date}")
+    @SecurityRequirement(name = "basicAuth")
+    public ResponseEntity<EntityModel<JokeRecord>> getJokeOn(@PathVariable LocalDate date,
+                                                             @RequestParam(defaultValue = "EXACT") JokeDateMatch match) {
+        JokeRecord joke = jokeService.findJoke(date, match)
+                .orElseThrow(() -> new JokeNotFoundException("No joke " + match.getDescription() + " date '" + date + "' exists"));
+        return withValidators(jokeModelAssembler.toModel(joke));
+    }
+
+    /**
+     * Returns the jokes between the given (inclusive) dates in date order.  If there are more than {@code size} the
+     * {@code next} link returns the rest of the range.
+     */
+    @GetMapping("/between")
+    @SecurityRequirement(name = "basicAuth")
+    public CollectionModel<EntityModel<JokeRecord>> getJokesBetween(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                    @RequestParam(defaultValue = "20") @Min(1) @Max(2000) int size) {
+        JokeSlice slice = jokeService.getJokesBetween(from, to, size);
+        CollectionModel<EntityModel<JokeRecord>> model = jokeModelAssembler.forPage(slice.jokes())
+                .toCollectionModel(slice.jokes())
+                .add(linkTo(methodOn(JokeController.class).getJokesBetween(from, to, size)).withSelfRel());
+        slice.getNext()
+                .map(next -> linkTo(methodOn(JokeController.class).getJokesBetween(next.date().plusDays(1), to, size)).withRel(IanaLinkRelations.NEXT))
+                .ifPresent(model::add);
+        return model;
+    }
+
+    /**
+     * Moves every joke between the given (inclusive) dates by {@code days}, which may be negative.  Returns
+     * {@code 409 Conflict}, without moving any, if one would be moved to a date which already has a joke.
+     */
+    @PostMapping("/between/shift")
+    @SecurityRequirement(name = "basicAuth")
+    public JokeBulkResult shiftJokes(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                     @RequestParam int days) {
+        return new JokeBulkResult(jokeService.shiftJokes(from, to, days));
+    }
+
+    /**
+     * Changes every joke between the given (inclusive) dates.
+     */
+    @PatchMapping("/between")
+    @SecurityRequirement(name = "basicAuth")
+    public JokeBulkResult patchJokes(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                     @RequestBody JokeRangePatch patch) {
+        return new JokeBulkResult(jokeService.updateDescriptions(from, to, patch.description()));
+    }
+
+    /**
+     * Deletes every joke between the given (inclusive) dates.
+     */
+    @DeleteMapping("/between")
+    @SecurityRequirement(name = "basicAuth")
+    public JokeBulkResult deleteJokes(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return new JokeBulkResult(jokeService.removeJokes(from, to));
     }
 
     @PostMapping
@@ -50,24 +194,60 @@ public class JokeController {
         return ResponseEntity.created(selfLink).body(model);
     }
 
+    /**
+     * Returns the joke of the day for the current date in the time zone given by the {@code zone} parameter or the
+     * {@code Time-Zone} header, e.g. {@code Europe/Paris} or {@code +02:00}, or else the server's time zone.  The
+     * response may be cached publicly until the next date rollover in that time zone, and
+     * conditional requests matching the {@code ETag} or {@code Last-Modified} validators are answered with
+     * {@code 304 Not Modified}.  The body is served from {@link JokeOfTheDayResponseCache}, gzipped if the client
+     * accepts it, so it is only serialized when the joke of the day changes.
+     */
     @GetMapping("/today")
-    public EntityModel<JokeRecord> getJokeOfTheDay() {
-        JokeRecord joke = jokeService.getJokeOfTheDay();
-        return jokeModelAssembler.toModel(joke);
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = JokeRecord.class)))
+    public ResponseEntity<byte[]> getJokeOfTheDay(@RequestParam(required = false) ZoneId zone,
+                                                  @RequestHeader(name = TIME_ZONE, required = false) ZoneId timeZone,
+                                                  HttpServletRequest request) throws HttpMediaTypeNotAcceptableException {
+        if (zone == null) {
+            zone = timeZone != null ? timeZone : ZoneId.systemDefault();
+        }
+        JokeOfTheDay jokeOfTheDay = jokeService.getJokeOfTheDaySnapshot(zone);
+        JokeOfTheDayResponseCache.Response response = jokeOfTheDayResponseCache.getResponse(jokeOfTheDay, request);
+        boolean gzip = PrecompressedBody.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(jokeOfTheDayContentType(request.getHeader(HttpHeaders.ACCEPT)))
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING, TIME_ZONE)
+                .eTag(response.eTag(gzip))
+                .lastModified(jokeOfTheDay.lastModified(zone));
+        if (jokeOfTheDay.isStale()) {
+            // served while the current joke of the day couldn't be loaded, so caches must check back for it
+            builder.cacheControl(CacheControl.noCache().cachePublic())
+                    .header(HttpHeaders.AGE, Long.toString(jokeOfTheDay.staleness().toSeconds()));
+        } else {
+            builder.cacheControl(CacheControl.maxAge(jokeOfTheDay.timeUntilRollover(zone)).cachePublic());
+        }
+        return response.body().toResponse(builder, gzip);
     }
 
     @GetMapping("/{id}")
     @SecurityRequirement(name = "basicAuth")
-    public EntityModel<JokeRecord> getJoke(@PathVariable UUID id) {
+    public ResponseEntity<EntityModel<JokeRecord>> getJoke(@PathVariable UUID id) {
         JokeRecord joke = jokeService.getJoke(id);
-        return jokeModelAssembler.toModel(joke);
+        return withValidators(jokeModelAssembler.toModel(joke));
     }
 
+    /**
+     * Updates the joke.  If an {@code If-Match} header is given the update is only applied if it matches the current
+     * {@code ETag} of the joke, otherwise {@code 412 Precondition Failed} is returned.  Without one the version the
+     * joke is updated to isn't known, so the response has no {@code ETag}.
+     */
     @PutMapping("/{id}")
     @SecurityRequirement(name = "basicAuth")
-    public EntityModel<JokeRecord> updateJoke(@PathVariable UUID id, @Valid @RequestBody JokeRecord request) {
-        JokeRecord joke = jokeService.updateJoke(id, request);
-        return jokeModelAssembler.toModel(joke);
+    public ResponseEntity<EntityModel<JokeRecord>> updateJoke(@PathVariable UUID id, @Valid @RequestBody JokeRecord request,
+                                                              @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = ifMatch == null ? null : JokeValidators.parseVersion(ifMatch, id);
+        JokeRecord joke = jokeService.updateJoke(id, request, expectedVersion);
+        // an ETag for an unknown version would never match
+        return withValidators(jokeModelAssembler.toModel(joke), joke.version() != null);
     }
 
     @DeleteMapping("/{id}")
@@ -92,4 +272,44 @@ public class JokeController {
         return ProblemDetail.forStatusAndDetail(HttpStatus.UNPROCESSABLE_ENTITY, ex.getMessage());
     }
 
+    @ExceptionHandler(JokeVersionConflictException.class)
+    public ProblemDetail handleJokeVersionConflictException(JokeVersionConflictException ex) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.PRECONDITION_FAILED, ex.getMessage());
+    }
+
+    private ResponseEntity<EntityModel<JokeRecord>> withValidators(EntityModel<JokeRecord> model) {
+        return withValidators(model, true);
+    }
+
+    private ResponseEntity<EntityModel<JokeRecord>> withValidators(EntityModel<JokeRecord> model, boolean eTag) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate());
+        if (eTag) {
+            response.eTag(JokeValidators.eTag(model));
+        }
+        Instant lastModified = model.getContent().lastModified();
+        if (lastModified != null) {
+            response.lastModified(lastModified);
+        }
+        return response.body(model);
+    }
+
+    /**
+     * Returns HAL unless the client only accepts plain JSON, as content negotiation would for a model; the body is HAL
+     * either way.
+     */
+    private static MediaType jokeOfTheDayContentType(String accept) throws HttpMediaTypeNotAcceptableException {
+        if (accept == null) {
+            return MediaTypes.HAL_JSON;
+        }
+        List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+        for (MediaType contentType : JOKE_OF_THE_DAY_CONTENT_TYPES) {
+            for (MediaType mediaType : accepted) {
+                if (mediaType.isCompatibleWith(contentType)) {
+                    return contentType;
+                }
+            }
+        }
+        throw new HttpMediaTypeNotAcceptableException(JOKE_OF_THE_DAY_CONTENT_TYPES);
+    }
 }
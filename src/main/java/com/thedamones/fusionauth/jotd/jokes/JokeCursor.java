@@ -0,0 +1,31 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque position within the jokes ordered by date, used for keyset pagination.  Since the date of a joke is unique
+ * the date of the last (or first) joke of a slice is enough to seek to the following (or preceding) slice.
+ * <p>
+ * The token is converted to and from request parameters through {@link #valueOf(String)} and {@link #toString()}.
+ */
+public record JokeCursor(LocalDate date) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public static JokeCursor valueOf(String token) {
+        try {
+            return new JokeCursor(LocalDate.parse(new String(DECODER.decode(token), StandardCharsets.US_ASCII)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor '" + token + "'", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return ENCODER.encodeToString(date.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+}
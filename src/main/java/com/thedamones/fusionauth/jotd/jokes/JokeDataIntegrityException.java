@@ -2,6 +2,10 @@ package com.thedamones.fusionauth.jotd.jokes;
 
 public class JokeDataIntegrityException extends RuntimeException {
 
+    public JokeDataIntegrityException(String message) {
+        super(message);
+    }
+
     public JokeDataIntegrityException(Throwable cause) {
         super(cause);
     }
@@ -2,6 +2,10 @@ package com.thedamones.fusionauth.jotd.jokes;
 
 public class JokeDataOperationException extends RuntimeException {
 
+    public JokeDataOperationException(String message) {
+        super(message);
+    }
+
     public JokeDataOperationException(Throwable cause) {
         super(cause);
     }
@@ -0,0 +1,11 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Projection of a joke's id and date, used when only the identity of a joke on a given date is needed (e.g. for
+ * navigational links).
+ */
+public record JokeDate(UUID id, LocalDate date) {
+}
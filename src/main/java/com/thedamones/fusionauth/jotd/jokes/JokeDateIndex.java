@@ -0,0 +1,147 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Immutable index of the date of every joke, held as a sorted array of epoch days alongside an array of the ids of
+ * the jokes on those days.  Exact, floor, ceiling and range lookups are binary searches over a primitive array, so
+ * they neither allocate nor touch the database.
+ * <p>
+ * Changes produce a new index with {@link #with(Collection, Collection)}, which copies the arrays once per batch of
+ * changes, so readers never lock.
+ */
+final class JokeDateIndex {
+
+    static final JokeDateIndex EMPTY = new JokeDateIndex(new long[0], new UUID[0]);
+
+    private final long[] epochDays;
+    private final UUID[] ids;
+
+    private JokeDateIndex(long[] epochDays, UUID[] ids) {
+        this.epochDays = epochDays;
+        this.ids = ids;
+    }
+
+    /**
+     * Builds an index from jokes in ascending date order, as returned by {@link JokeRepository#streamJokeDates()}.
+     *
+     * @throws IllegalArgumentException if the jokes aren't in ascending date order, or two jokes share a date
+     */
+    static JokeDateIndex of(Stream<JokeDate> jokes) {
+        long[] epochDays = new long[1024];
+        UUID[] ids = new UUID[1024];
+        int size = 0;
+        for (JokeDate joke : (Iterable<JokeDate>) jokes::iterator) {
+            long epochDay = joke.date().toEpochDay();
+            if (size > 0 && epochDay <= epochDays[size - 1]) {
+                throw new IllegalArgumentException("Jokes are not in ascending date order at " + joke.date());
+            }
+            if (size == epochDays.length) {
+                epochDays = Arrays.copyOf(epochDays, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            epochDays[size] = epochDay;
+            ids[size] = joke.id();
+            size++;
+        }
+        return new JokeDateIndex(Arrays.copyOf(epochDays, size), Arrays.copyOf(ids, size));
+    }
+
+    int size() {
+        return epochDays.length;
+    }
+
+    Optional<JokeDate> find(LocalDate date, JokeDateMatch match) {
+        int i = Arrays.binarySearch(epochDays, date.toEpochDay());
+        if (i >= 0) {
+            return Optional.of(entry(i));
+        }
+        return entryIfPresent(match.select(date.toEpochDay(), -i - 1, day -> epochDays[day], epochDays.length));
+    }
+
+    /**
+     * Returns up to {@code limit} jokes between the given (inclusive) dates in date order.
+     */
+    List<JokeDate> between(LocalDate from, LocalDate to, int limit) {
+        int start = lowerBound(from.toEpochDay());
+        int end = Math.min(lowerBound(to.toEpochDay() + 1), start + limit);
+        List<JokeDate> jokes = new ArrayList<>(Math.max(end - start, 0));
+        for (int i = start; i < end; i++) {
+            jokes.add(entry(i));
+        }
+        return jokes;
+    }
+
+    /**
+     * Returns a new index with the jokes saved (added, or moved to a new date) and removed.
+     */
+    JokeDateIndex with(Collection<JokeDate> saved, Collection<UUID> removed) {
+        if (saved.isEmpty() && removed.isEmpty()) {
+            return this;
+        }
+        Set<UUID> dropped = new HashSet<>(removed);
+        Set<Long> replacedDays = new HashSet<>();
+        for (JokeDate joke : saved) {
+            dropped.add(joke.id());
+            replacedDays.add(joke.date().toEpochDay());
+        }
+        JokeDate[] added = saved.stream()
+                .filter(joke -> !removed.contains(joke.id()))
+                .sorted(Comparator.comparing(JokeDate::date))
+                .toArray(JokeDate[]::new);
+
+        long[] mergedDays = new long[epochDays.length + added.length];
+        UUID[] mergedIds = new UUID[mergedDays.length];
+        int size = 0;
+        int next = 0;
+        for (int i = 0; i < epochDays.length; i++) {
+            if (dropped.contains(ids[i]) || replacedDays.contains(epochDays[i])) {
+                continue;
+            }
+            for (; next < added.length && added[next].date().toEpochDay() < epochDays[i]; next++) {
+                size = append(mergedDays, mergedIds, size, added[next]);
+            }
+            mergedDays[size] = epochDays[i];
+            mergedIds[size] = ids[i];
+            size++;
+        }
+        for (; next < added.length; next++) {
+            size = append(mergedDays, mergedIds, size, added[next]);
+        }
+        return new JokeDateIndex(Arrays.copyOf(mergedDays, size), Arrays.copyOf(mergedIds, size));
+    }
+
+    private static int append(long[] epochDays, UUID[] ids, int size, JokeDate joke) {
+        long epochDay = joke.date().toEpochDay();
+        // a later save of the same date in the batch wins
+        if (size > 0 && epochDays[size - 1] == epochDay) {
+            size--;
+        }
+        epochDays[size] = epochDay;
+        ids[size] = joke.id();
+        return size + 1;
+    }
+
+    private int lowerBound(long epochDay) {
+        int i = Arrays.binarySearch(epochDays, epochDay);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    private Optional<JokeDate> entryIfPresent(int i) {
+        return i >= 0 && i < epochDays.length ? Optional.of(entry(i)) : Optional.empty();
+    }
+
+    private JokeDate entry(int i) {
+        return new JokeDate(ids[i], LocalDate.ofEpochDay(epochDays[i]));
+    }
+}
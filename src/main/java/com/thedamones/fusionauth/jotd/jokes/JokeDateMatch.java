@@ -0,0 +1,53 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import java.util.function.IntToLongFunction;
+
+/**
+ * How a joke is matched to a date when looking it up by date.
+ */
+public enum JokeDateMatch {
+
+    /** The joke on the date. */
+    EXACT("on"),
+    /** The joke on the date, or else the latest joke before it. */
+    FLOOR("on or before"),
+    /** The joke on the date, or else the earliest joke after it. */
+    CEILING("on or after"),
+    /** The joke closest to the date, preferring the earlier joke when two are equally close. */
+    NEAREST("nearest to");
+
+    private final String description;
+
+    JokeDateMatch(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Selects the matching position in a sorted run of epoch days.
+     *
+     * @param epochDay the epoch day being looked up
+     * @param insertionPoint the position of the first epoch day after {@code epochDay}, which must not be present
+     * @param epochDays the epoch day at each position
+     * @param size the number of positions
+     * @return the position of the match, or {@code -1} if there is none
+     */
+    int select(long epochDay, int insertionPoint, IntToLongFunction epochDays, int size) {
+        int floor = insertionPoint - 1;
+        int ceiling = insertionPoint < size ? insertionPoint : -1;
+        return switch (this) {
+            case EXACT -> -1;
+            case FLOOR -> floor;
+            case CEILING -> ceiling;
+            case NEAREST -> {
+                if (floor < 0 || (ceiling >= 0 && epochDays.applyAsLong(ceiling) - epochDay < epochDay - epochDays.applyAsLong(floor))) {
+                    yield ceiling;
+                }
+                yield floor;
+            }
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import org.springframework.http.MediaType;
+
+public enum JokeExportFormat {
+
+    NDJSON(new MediaType("application", "x-ndjson"), "ndjson"),
+    CSV(new MediaType("text", "csv"), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    JokeExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
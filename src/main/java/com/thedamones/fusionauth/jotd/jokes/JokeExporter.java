@@ -0,0 +1,90 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.opencsv.CSVWriterBuilder;
+import com.opencsv.ICSVWriter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Writes the joke catalog straight to the response as NDJSON or CSV, one joke at a time as it is read from the
+ * database, so memory use doesn't depend on the size of the catalog.
+ */
+@Component
+public class JokeExporter {
+
+    private static final String[] CSV_HEADER = { "id", "date", "joke", "description" };
+
+    private final JokeService jokeService;
+    private final ObjectWriter jokeWriter;
+    private final ObjectMapper objectMapper;
+
+    public JokeExporter(JokeService jokeService, ObjectMapper objectMapper) {
+        this.jokeService = jokeService;
+        this.objectMapper = objectMapper;
+        this.jokeWriter = objectMapper.writerFor(JokeRecord.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public StreamingResponseBody export(LocalDate from, LocalDate to, JokeExportFormat format) {
+        return switch (format) {
+            case NDJSON -> outputStream -> writeNdjson(from, to, outputStream);
+            case CSV -> outputStream -> writeCsv(from, to, outputStream);
+        };
+    }
+
+    private void writeNdjson(LocalDate from, LocalDate to, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            export(from, to, joke -> {
+                jokeWriter.writeValue(generator, joke);
+                generator.writeRaw('\n');
+            });
+        }
+    }
+
+    private void writeCsv(LocalDate from, LocalDate to, OutputStream outputStream) throws IOException {
+        try (ICSVWriter csvWriter = new CSVWriterBuilder(new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)))
+                .build()) {
+            csvWriter.writeNext(CSV_HEADER, false);
+            export(from, to, joke -> csvWriter.writeNext(new String[] {
+                    joke.id().toString(),
+                    joke.date().toString(),
+                    joke.joke(),
+                    Objects.toString(joke.description(), "")
+            }, false));
+        }
+    }
+
+    private void export(LocalDate from, LocalDate to, JokeWriter writer) throws IOException {
+        try {
+            jokeService.exportJokes(from, to, joke -> {
+                try {
+                    writer.write(joke);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface JokeWriter {
+
+        void write(JokeRecord joke) throws IOException;
+    }
+}
@@ -0,0 +1,40 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-Sent Event feeds of the joke of the day and of changes to the jokes, for clients which would otherwise poll.
+ * See {@link JokeFeedService} for the events.
+ */
+@RestController
+@RequestMapping("/api/v1/jokes")
+public class JokeFeedController {
+
+    private final JokeFeedService jokeFeedService;
+
+    public JokeFeedController(JokeFeedService jokeFeedService) {
+        this.jokeFeedService = jokeFeedService;
+    }
+
+    /**
+     * Streams the joke of the day: it is sent straight away, and again at rollover or whenever it changes.
+     */
+    @GetMapping(path = "/today/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter jokeOfTheDayEvents() {
+        return jokeFeedService.subscribeToJokeOfTheDay();
+    }
+
+    /**
+     * Streams the joke of the day along with every change to the jokes.
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @SecurityRequirement(name = "basicAuth")
+    public SseEmitter jokeEvents() {
+        return jokeFeedService.subscribeToChanges();
+    }
+}
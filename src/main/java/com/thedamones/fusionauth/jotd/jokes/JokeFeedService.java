@@ -0,0 +1,265 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.thedamones.fusionauth.jotd.config.IsUser;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes the joke of the day, and optionally every change to the jokes, to clients as Server-Sent Events, so they
+ * don't need to poll {@code /api/v1/jokes/today}.
+ * <p>
+ * Subscribers hold no thread while idle: each connection is an asynchronous request, and events are written by
+ * virtual threads.  Each event is serialized once into a complete SSE frame which is shared by all subscribers and
+ * queued for each of them, so publishing never waits for a client.  A subscriber which falls more than
+ * {@code jotd.feed.max-pending-events} behind is disconnected; like any client reconnecting, it is sent the current
+ * joke of the day when it subscribes again.
+ * <p>
+ * A {@value #JOKE_OF_THE_DAY_EVENT} event is sent on subscribing, at rollover and whenever the joke of the day changes.
+ * The joke of the day is also re-checked with every heartbeat, so a change noticed late (e.g. from a catalog snapshot
+ * mapped on this instance) is still pushed within {@code jotd.feed.heartbeat-interval}.
+ */
+@Service
+public class JokeFeedService implements AutoCloseable {
+
+    static final String JOKE_OF_THE_DAY_EVENT = "joke-of-the-day";
+    static final String JOKE_CHANGE_EVENT = "joke-change";
+
+    private static final Logger logger = LoggerFactory.getLogger(JokeFeedService.class);
+
+    private static final Set<DataWithMediaType> HEARTBEAT = encode(":\n\n");
+
+    private final JokeService jokeService;
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+    private final int maxPendingEvents;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // publishes events one at a time, so every subscriber receives them in the same order
+    private final ScheduledExecutorService publisher;
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicLong eventIds = new AtomicLong();
+
+    // only accessed by the publisher thread
+    private JokeOfTheDayEvent jokeOfTheDay;
+    private volatile Set<DataWithMediaType> jokeOfTheDayFrame;
+
+    /**
+     * The data of a {@value #JOKE_OF_THE_DAY_EVENT} event.
+     *
+     * @param joke the joke of the day, or {@code null} if there is none
+     */
+    public record JokeOfTheDayEvent(LocalDate date, JokeRecord joke) {
+    }
+
+    public JokeFeedService(JokeService jokeService, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                           @Value("${jotd.feed.timeout:30m}") Duration timeout,
+                           @Value("${jotd.feed.heartbeat-interval:30s}") Duration heartbeatInterval,
+                           @Value("${jotd.feed.max-pending-events:64}") int maxPendingEvents) {
+        this.jokeService = jokeService;
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+        this.maxPendingEvents = maxPendingEvents;
+        this.publisher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("joke-feed")
+                .daemon()
+                .factory());
+        publisher.scheduleWithFixedDelay(this::heartbeat, heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+        Gauge.builder("jotd.feed.subscribers", subscribers, Set::size)
+                .description("Number of clients subscribed to the joke feed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Subscribes to {@value #JOKE_OF_THE_DAY_EVENT} events.
+     */
+    public SseEmitter subscribeToJokeOfTheDay() {
+        return subscribe(false);
+    }
+
+    /**
+     * Subscribes to {@value #JOKE_OF_THE_DAY_EVENT} events and to a {@value #JOKE_CHANGE_EVENT} event, with the
+     * {@link JokeChangeEvent}, for every committed change to the jokes.
+     */
+    @IsUser
+    public SseEmitter subscribeToChanges() {
+        return subscribe(true);
+    }
+
+    int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        publisher.execute(this::publishJokeOfTheDay);
+        scheduleRollover();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJokeChange(JokeChangeEvent change) {
+        publisher.execute(() -> {
+            Set<DataWithMediaType> frame = frame(JOKE_CHANGE_EVENT, change);
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.includeChanges) {
+                    subscriber.offer(frame);
+                }
+            }
+            publishJokeOfTheDay();
+        });
+    }
+
+    @EventListener
+    public void onRecurringJokeChange(RecurringJokeChangeEvent change) {
+        publisher.execute(this::publishJokeOfTheDay);
+    }
+
+    @EventListener
+    public void onCatalogSnapshot(JokeCatalogSnapshot catalog) {
+        publisher.execute(this::publishJokeOfTheDay);
+    }
+
+    @Override
+    public void close() {
+        publisher.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private SseEmitter subscribe(boolean includeChanges) {
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeout.toMillis()), includeChanges);
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        Set<DataWithMediaType> current = jokeOfTheDayFrame;
+        if (current != null) {
+            subscriber.offer(current);
+        } else {
+            // not published yet, which sends it to this subscriber too
+            publisher.execute(this::publishJokeOfTheDay);
+        }
+        return subscriber.emitter;
+    }
+
+    private void publishJokeOfTheDay() {
+        JokeOfTheDayEvent current;
+        try {
+            JokeOfTheDay snapshot = jokeService.getJokeOfTheDaySnapshot();
+            current = new JokeOfTheDayEvent(snapshot.date(), snapshot.joke());
+        } catch (NoJokeOfTheDayException e) {
+            current = new JokeOfTheDayEvent(LocalDate.now(), null);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to load the joke of the day for the feed", e);
+            return;
+        }
+        if (Objects.equals(current, jokeOfTheDay)) {
+            return;
+        }
+        jokeOfTheDay = current;
+        jokeOfTheDayFrame = frame(JOKE_OF_THE_DAY_EVENT, current);
+        subscribers.forEach(subscriber -> subscriber.offer(jokeOfTheDayFrame));
+    }
+
+    private void heartbeat() {
+        // also keeps idle connections open through proxies, and detects clients which have gone away
+        subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT));
+        publishJokeOfTheDay();
+    }
+
+    private void scheduleRollover() {
+        ZonedDateTime now = ZonedDateTime.now();
+        ZonedDateTime rollover = now.toLocalDate().plusDays(1).atStartOfDay(ZoneId.systemDefault());
+        publisher.schedule(() -> {
+            publishJokeOfTheDay();
+            scheduleRollover();
+        }, Duration.between(now, rollover).toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private Set<DataWithMediaType> frame(String name, Object data) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new JokeServiceException("Exception while serializing " + name + " event", e);
+        }
+        return encode("id:" + eventIds.incrementAndGet() + "\nevent:" + name + "\ndata:" + json.replace("\n", "\ndata:") + "\n\n");
+    }
+
+    private static Set<DataWithMediaType> encode(String frame) {
+        return Set.of(new DataWithMediaType(frame.getBytes(StandardCharsets.UTF_8), MediaType.TEXT_EVENT_STREAM));
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final boolean includeChanges;
+        private final Queue<Set<DataWithMediaType>> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, boolean includeChanges) {
+            this.emitter = emitter;
+            this.includeChanges = includeChanges;
+        }
+
+        void offer(Set<DataWithMediaType> frame) {
+            if (pendingCount.incrementAndGet() > maxPendingEvents) {
+                // too slow to keep up, so let it reconnect rather than buffering without limit
+                subscribers.remove(this);
+                emitter.complete();
+                return;
+            }
+            pending.add(frame);
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::send);
+            }
+        }
+
+        private void send() {
+            try {
+                do {
+                    Set<DataWithMediaType> frame;
+                    while ((frame = pending.poll()) != null) {
+                        pendingCount.decrementAndGet();
+                        emitter.send(frame);
+                    }
+                    sending.set(false);
+                    // a frame offered after polling the last one but before clearing the flag has to be sent here
+                } while (!pending.isEmpty() && sending.compareAndSet(false, true));
+            } catch (IOException | RuntimeException e) {
+                // the client has gone away or the emitter has completed; the container reports IO errors itself
+                subscribers.remove(this);
+            }
+        }
+    }
+}
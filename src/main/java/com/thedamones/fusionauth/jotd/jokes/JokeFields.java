@@ -0,0 +1,43 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import java.util.StringJoiner;
+
+/**
+ * The fields of each joke to return when listing jokes, so that views which only need the dates, such as a calendar,
+ * don't read the text of every joke.  The {@code id} and {@code date} are always returned, since the links and
+ * ordering depend on them; {@code joke} and {@code description} are {@code null} unless they are requested.
+ * <p>
+ * Converted from request parameters such as {@code fields=id,date} through {@link #valueOf(String)} and
+ * {@link #toString()}.
+ */
+public record JokeFields(boolean joke, boolean description) {
+
+    public static final JokeFields ALL = new JokeFields(true, true);
+
+    public static JokeFields valueOf(String fields) {
+        boolean joke = false;
+        boolean description = false;
+        for (String field : fields.split(",")) {
+            switch (field.strip()) {
+                case "id", "date" -> {
+                }
+                case "joke" -> joke = true;
+                case "description" -> description = true;
+                default -> throw new IllegalArgumentException("Invalid field '" + field.strip() + "'");
+            }
+        }
+        return new JokeFields(joke, description);
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner fields = new StringJoiner(",").add("id").add("date");
+        if (joke) {
+            fields.add("joke");
+        }
+        if (description) {
+            fields.add("description");
+        }
+        return fields.toString();
+    }
+}
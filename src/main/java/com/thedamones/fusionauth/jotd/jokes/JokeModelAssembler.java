@@ -1,11 +1,19 @@
 package com.thedamones.fusionauth.jotd.jokes;
 
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import org.springframework.stereotype.Component;
 
-import java.util.function.Function;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
@@ -13,6 +21,8 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 @Component
 public class JokeModelAssembler implements RepresentationModelAssembler<JokeRecord, EntityModel<JokeRecord>> {
 
+    private static final LinkRelation NEXT_DAY = LinkRelation.of("nextDay");
+
     private final JokeRepository jokeRepository;
 
     public JokeModelAssembler(JokeRepository jokeRepository) {
@@ -21,18 +31,49 @@ public class JokeModelAssembler implements RepresentationModelAssembler<JokeReco
 
     @Override
     public EntityModel<JokeRecord> toModel(JokeRecord joke) {
-        EntityModel<JokeRecord> jokeModel = EntityModel.of(joke,
-                linkTo(methodOn(JokeController.class).getJoke(joke.id())).withSelfRel());
-
         // add link for next day if one exists
-        jokeRepository.findByDate(joke.date().plusDays(1))
-                .map(toLink("nextDay"))
-                .ifPresent(jokeModel::add);
+        Optional<Link> nextDay = jokeRepository.findByDate(joke.date().plusDays(1))
+                .map(next -> jokeLink(next.getId(), NEXT_DAY));
+        return toModel(joke, nextDay);
+    }
+
+    /**
+     * Creates the model for the joke of the day using the next day's joke already held by the snapshot rather than
+     * querying for it.  Either joke may be a recurring joke, in which case it links to the recurring joke resource.
+     */
+    public EntityModel<JokeRecord> toModel(JokeOfTheDay jokeOfTheDay) {
+        return toModel(jokeOfTheDay.joke(), jokeOfTheDay.getNextDay().map(next -> link(next, NEXT_DAY)));
+    }
 
+    /**
+     * Returns an assembler for the given page of jokes which resolves the {@code nextDay} links of every joke on the
+     * page with a single query, rather than one query per joke.
+     */
+    public RepresentationModelAssembler<JokeRecord, EntityModel<JokeRecord>> forPage(Iterable<JokeRecord> jokes) {
+        Set<LocalDate> nextDays = StreamSupport.stream(jokes.spliterator(), false)
+                .map(joke -> joke.date().plusDays(1))
+                .collect(Collectors.toSet());
+        Map<LocalDate, UUID> nextDayIds = nextDays.isEmpty() ? Map.of() : jokeRepository.findJokeDatesByDateIn(nextDays)
+                .stream()
+                .collect(Collectors.toMap(JokeDate::date, JokeDate::id));
+        return joke -> toModel(joke, Optional.ofNullable(nextDayIds.get(joke.date().plusDays(1)))
+                .map(id -> jokeLink(id, NEXT_DAY)));
+    }
+
+    private EntityModel<JokeRecord> toModel(JokeRecord joke, Optional<Link> nextDay) {
+        EntityModel<JokeRecord> jokeModel = EntityModel.of(joke, link(joke, IanaLinkRelations.SELF));
+        nextDay.ifPresent(jokeModel::add);
         return jokeModel;
     }
 
-    private Function<Joke, Link> toLink(String rel) {
-        return joke -> linkTo(methodOn(JokeController.class).getJoke(joke.getId())).withRel(rel);
+    private static Link link(JokeRecord joke, LinkRelation relation) {
+        if (joke.isRecurring()) {
+            return linkTo(methodOn(RecurringJokeController.class).getRecurringJoke(joke.id())).withRel(relation);
+        }
+        return jokeLink(joke.id(), relation);
+    }
+
+    private static Link jokeLink(UUID id, LinkRelation relation) {
+        return linkTo(methodOn(JokeController.class).getJoke(id)).withRel(relation);
     }
 }
@@ -0,0 +1,137 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of the joke for a given date along with the joke for the following day, used to resolve the
+ * "joke of the day" and its {@code nextDay} link without querying the database on every request.
+ *
+ * @param date the date this snapshot was built for
+ * @param joke the joke for {@code date}, or {@code null} if no joke exists for that date
+ * @param nextDay the joke for the day after {@code date}, or {@code null} if no joke exists for that date
+ * @param staleSince when a change made this snapshot out of date, if it is being served because a current one
+ *                   couldn't be loaded in time, or {@code null} if it is current
+ */
+public record JokeOfTheDay(LocalDate date, JokeRecord joke, JokeRecord nextDay, Instant staleSince) {
+
+    public JokeOfTheDay(LocalDate date, JokeRecord joke, JokeRecord nextDay) {
+        this(date, joke, nextDay, null);
+    }
+
+    public boolean isFor(LocalDate date) {
+        return this.date.equals(date);
+    }
+
+    public Optional<JokeRecord> getJoke() {
+        return Optional.ofNullable(joke);
+    }
+
+    public Optional<JokeRecord> getNextDay() {
+        return Optional.ofNullable(nextDay);
+    }
+
+    public boolean isStale() {
+        return staleSince != null;
+    }
+
+    /**
+     * Returns a copy of this snapshot which has been out of date since the given instant, or this snapshot if it is
+     * already stale.
+     */
+    public JokeOfTheDay asStale(Instant since) {
+        return isStale() ? this : new JokeOfTheDay(date, joke, nextDay, since);
+    }
+
+    /**
+     * Returns how long this snapshot has been out of date, or zero if it is current.
+     */
+    public Duration staleness() {
+        if (staleSince == null) {
+            return Duration.ZERO;
+        }
+        Duration staleness = Duration.between(staleSince, Instant.now());
+        return staleness.isNegative() ? Duration.ZERO : staleness;
+    }
+
+    /**
+     * Returns the earliest date which is currently today somewhere in the world.  Snapshots for earlier dates are no
+     * longer needed.
+     */
+    public static LocalDate earliestDate() {
+        return LocalDate.now(ZoneOffset.MIN);
+    }
+
+    /**
+     * Returns the time left until this snapshot rolls over to the next date in the server's time zone.
+     */
+    public Duration timeUntilRollover() {
+        return timeUntilRollover(ZoneId.systemDefault());
+    }
+
+    /**
+     * Returns the time left until this snapshot rolls over to the next date in the given time zone.
+     */
+    public Duration timeUntilRollover(ZoneId zone) {
+        Instant rollover = date.plusDays(1).atStartOfDay(zone).toInstant();
+        Duration remaining = Duration.between(Instant.now(), rollover);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    /**
+     * Returns when the joke of the day last changed in the server's time zone.
+     */
+    public Instant lastModified() {
+        return lastModified(ZoneId.systemDefault());
+    }
+
+    /**
+     * Returns when the joke of the day last changed, which is no earlier than the start of {@code date} in the given
+     * time zone since the joke of the day itself changes at rollover.  The next day's joke is included since it
+     * determines the {@code nextDay} link.
+     */
+    public Instant lastModified(ZoneId zone) {
+        Instant lastModified = date.atStartOfDay(zone).toInstant();
+        for (JokeRecord record : new JokeRecord[] { joke, nextDay }) {
+            if (record != null && record.lastModified() != null && record.lastModified().isAfter(lastModified)) {
+                lastModified = record.lastModified();
+            }
+        }
+        return lastModified;
+    }
+
+    /**
+     * Returns {@code true} if a change to a joke with the given date would make this snapshot stale.
+     */
+    public boolean touches(LocalDate date) {
+        return this.date.equals(date) || this.date.plusDays(1).equals(date);
+    }
+
+    /**
+     * Returns {@code true} if a change to the jokes between the given (inclusive) dates would make this snapshot
+     * stale.
+     */
+    public boolean touches(LocalDate from, LocalDate to) {
+        return !date.plusDays(1).isBefore(from) && !date.isAfter(to);
+    }
+
+    /**
+     * Returns {@code true} if a change to the recurring jokes for the given month-day would make this snapshot stale.
+     */
+    public boolean touches(MonthDay monthDay) {
+        return monthDay.equals(MonthDay.from(date)) || monthDay.equals(MonthDay.from(date.plusDays(1)));
+    }
+
+    /**
+     * Returns {@code true} if a change to the joke with the given id would make this snapshot stale.
+     */
+    public boolean touches(UUID id) {
+        return (joke != null && joke.id().equals(id)) || (nextDay != null && nextDay.id().equals(id));
+    }
+}
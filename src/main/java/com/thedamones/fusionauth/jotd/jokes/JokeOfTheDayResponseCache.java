@@ -0,0 +1,124 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import com.thedamones.fusionauth.jotd.web.PrecompressedBody;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches the serialized body of {@code GET /api/v1/jokes/today}, so the HAL model is only assembled and serialized
+ * when the joke of the day changes.
+ * <p>
+ * A body is cached for each date which is today somewhere, since clients in different time zones may be on different
+ * dates, and is rebuilt whenever {@link JokeService} replaces its {@link JokeOfTheDay} snapshot for the date, i.e.
+ * when the joke for that date or the next changes.  The links in the body are absolute, so it is also rebuilt if a request
+ * arrives for another scheme, host, port or context path.  It is serialized by the same message converter MVC would
+ * use, so the bytes are exactly what the controller would otherwise have written.
+ */
+@Component
+public class JokeOfTheDayResponseCache {
+
+    private final JokeModelAssembler jokeModelAssembler;
+    private final ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter;
+
+    private final ConcurrentMap<LocalDate, Response> responses = new ConcurrentHashMap<>();
+    private HttpMessageConverter<Object> halConverter;
+
+    /**
+     * The serialized joke of the day, along with what it was built from.
+     *
+     * @param eTag the strong ETag of the uncompressed body
+     * @param gzipETag the strong ETag of the gzipped body
+     */
+    public record Response(JokeOfTheDay jokeOfTheDay, String scheme, String serverName, int serverPort, String contextPath,
+                           PrecompressedBody body, String eTag, String gzipETag) {
+
+        boolean isFor(JokeOfTheDay jokeOfTheDay, HttpServletRequest request) {
+            return this.jokeOfTheDay == jokeOfTheDay
+                    && serverPort == request.getServerPort()
+                    && scheme.equals(request.getScheme())
+                    && Objects.equals(serverName, request.getServerName())
+                    && contextPath.equals(request.getContextPath());
+        }
+
+        public String eTag(boolean gzipped) {
+            return gzipped ? gzipETag : eTag;
+        }
+    }
+
+    public JokeOfTheDayResponseCache(JokeModelAssembler jokeModelAssembler, ObjectProvider<RequestMappingHandlerAdapter> handlerAdapter) {
+        this.jokeModelAssembler = jokeModelAssembler;
+        this.handlerAdapter = handlerAdapter;
+    }
+
+    /**
+     * Returns the response for the joke of the day, which must be the current {@link JokeService#getJokeOfTheDaySnapshot(java.time.ZoneId)},
+     * building it if the cached response is for another joke of the day or origin.  Must be called while handling the
+     * request, since the links are built from it.
+     */
+    public Response getResponse(JokeOfTheDay jokeOfTheDay, HttpServletRequest request) {
+        Response current = responses.get(jokeOfTheDay.date());
+        if (current != null && current.isFor(jokeOfTheDay, request)) {
+            return current;
+        }
+        EntityModel<JokeRecord> model = jokeModelAssembler.toModel(jokeOfTheDay);
+        String eTag = JokeValidators.eTag(model);
+        Response built = new Response(jokeOfTheDay, request.getScheme(), request.getServerName(), request.getServerPort(),
+                request.getContextPath(), PrecompressedBody.of(serialize(model)), eTag, PrecompressedBody.eTag(eTag, true));
+        LocalDate earliest = JokeOfTheDay.earliestDate();
+        responses.keySet().removeIf(date -> date.isBefore(earliest));
+        responses.put(jokeOfTheDay.date(), built);
+        return built;
+    }
+
+    private byte[] serialize(EntityModel<JokeRecord> model) {
+        BufferedOutputMessage message = new BufferedOutputMessage();
+        try {
+            halConverter().write(model, MediaTypes.HAL_JSON, message);
+        } catch (IOException e) {
+            throw new JokeServiceException("Exception while serializing the joke of the day", e);
+        }
+        return message.body.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private HttpMessageConverter<Object> halConverter() {
+        if (halConverter == null) {
+            halConverter = (HttpMessageConverter<Object>) handlerAdapter.getObject().getMessageConverters().stream()
+                    .filter(converter -> converter.canWrite(EntityModel.class, MediaTypes.HAL_JSON))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No message converter for " + MediaTypes.HAL_JSON));
+        }
+        return halConverter;
+    }
+
+    private static final class BufferedOutputMessage implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(512);
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps {@link JokeService} warmed with the joke of the day for every date which is today somewhere, checking every
+ * {@code jotd.joke-of-the-day.warm-interval}.  The next date is loaded {@code jotd.joke-of-the-day.warm-ahead} before
+ * it starts in the first time zone, so no request waits for it at midnight in any zone, and a snapshot evicted by a
+ * write is reloaded in the background too.
+ */
+@Component
+public class JokeOfTheDayWarmer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(JokeOfTheDayWarmer.class);
+
+    private final JokeService jokeService;
+    private final Duration interval;
+    private final Duration ahead;
+    private final ScheduledExecutorService executor;
+
+    public JokeOfTheDayWarmer(JokeService jokeService,
+                              @Value("${jotd.joke-of-the-day.warm-interval:1m}") Duration interval,
+                              @Value("${jotd.joke-of-the-day.warm-ahead:5m}") Duration ahead) {
+        this.jokeService = jokeService;
+        this.interval = interval;
+        this.ahead = ahead;
+        this.executor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("joke-of-the-day-warmer")
+                .daemon()
+                .factory());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        executor.scheduleWithFixedDelay(this::warm, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void warm() {
+        try {
+            jokeService.warmJokesOfTheDay(ahead);
+        } catch (RuntimeException e) {
+            // requests load the joke of the day themselves, so just try again next time
+            logger.warn("Failed to warm the joke of the day", e);
+        }
+    }
+}
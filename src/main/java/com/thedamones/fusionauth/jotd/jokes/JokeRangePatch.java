@@ -0,0 +1,9 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+/**
+ * The changes to make to every joke in a date range.
+ *
+ * @param description the new description, or {@code null} to clear it
+ */
+public record JokeRangePatch(String description) {
+}
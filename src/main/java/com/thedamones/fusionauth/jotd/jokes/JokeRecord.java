@@ -1,12 +1,38 @@
 package com.thedamones.fusionauth.jotd.jokes;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.hateoas.server.core.Relation;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.MonthDay;
 import java.util.UUID;
 
+/**
+ * @param version the version of the joke, exposed to clients through the {@code ETag} header rather than the body
+ * @param lastModified when the joke was last modified, exposed to clients through the {@code Last-Modified} header
+ * @param recurring the month-day of the {@link RecurringJoke} this joke was taken from for {@code date}, or
+ *                  {@code null} for a joke stored for that exact date
+ */
 @Relation(collectionRelation = "jokes")
-public record JokeRecord(UUID id, @NotNull LocalDate date, @NotBlank String joke, String description) {
+public record JokeRecord(UUID id, @NotNull LocalDate date, @NotBlank String joke, String description,
+                         @JsonIgnore Long version, @JsonIgnore Instant lastModified,
+                         @JsonInclude(JsonInclude.Include.NON_NULL) @JsonProperty(access = JsonProperty.Access.READ_ONLY) MonthDay recurring) {
+
+    public JokeRecord(UUID id, LocalDate date, String joke, String description, Long version, Instant lastModified) {
+        this(id, date, joke, description, version, lastModified, null);
+    }
+
+    public JokeRecord(UUID id, LocalDate date, String joke, String description) {
+        this(id, date, joke, description, null, null);
+    }
+
+    @JsonIgnore
+    public boolean isRecurring() {
+        return recurring != null;
+    }
 }
@@ -0,0 +1,188 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Caches jokes by id for {@link JokeService#getJoke(UUID)}, so repeated reads of a popular joke don't each go to the
+ * database.
+ * <p>
+ * The most recently used {@code jotd.jokes.cache.maximum-size} jokes are kept, each for at most
+ * {@code jotd.jokes.cache.ttl}.  Concurrent misses for the same id share a single load: the first caller loads the
+ * joke and the others wait for its result, so a burst of requests for an uncached joke runs one query.  A joke is
+ * dropped when a {@link JokeChangeEvent} saves or removes it, and a load which overlaps a change isn't cached, so
+ * the cache never returns a joke older than the last committed change.
+ */
+@Component
+public class JokeRecordCache {
+
+    private final long ttlNanos;
+    private final Map<UUID, Entry> jokes;
+    private final ConcurrentMap<UUID, CompletableFuture<Optional<JokeRecord>>> loading = new ConcurrentHashMap<>();
+    // bumped on every change, so a joke loaded concurrently with a change isn't cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter sizeEvictions;
+    private final Counter expirations;
+
+    private record Entry(JokeRecord joke, long expires) {
+    }
+
+    public JokeRecordCache(MeterRegistry meterRegistry,
+                           @Value("${jotd.jokes.cache.maximum-size:10000}") int maximumSize,
+                           @Value("${jotd.jokes.cache.ttl:5m}") Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+        // access ordered, so the least recently used joke is evicted first
+        this.jokes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                if (size() > maximumSize) {
+                    sizeEvictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.hits = gets(meterRegistry, "hit");
+        this.misses = gets(meterRegistry, "miss");
+        this.coalesced = gets(meterRegistry, "coalesced");
+        this.sizeEvictions = evictions(meterRegistry, "size");
+        this.expirations = evictions(meterRegistry, "expired");
+        Gauge.builder("jotd.jokes.cache.size", this, JokeRecordCache::size)
+                .description("Number of jokes cached by id")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached joke with the id or, if it isn't cached, the joke loaded by the loader.  If the joke is
+     * already being loaded by another thread, waits for that load instead of starting another.  Jokes which don't
+     * exist aren't cached.
+     */
+    public Optional<JokeRecord> get(UUID id, Function<UUID, Optional<JokeRecord>> loader) {
+        JokeRecord cached = getCached(id);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        CompletableFuture<Optional<JokeRecord>> load = new CompletableFuture<>();
+        CompletableFuture<Optional<JokeRecord>> inFlight = loading.putIfAbsent(id, load);
+        if (inFlight != null) {
+            coalesced.increment();
+            return await(inFlight);
+        }
+        try {
+            // another thread may have finished loading it since it was looked up
+            cached = getCached(id);
+            if (cached != null) {
+                hits.increment();
+                load.complete(Optional.of(cached));
+                return Optional.of(cached);
+            }
+            misses.increment();
+            long loadedGeneration = generation.get();
+            Optional<JokeRecord> joke = loader.apply(id);
+            joke.ifPresent(loaded -> {
+                synchronized (jokes) {
+                    if (generation.get() == loadedGeneration) {
+                        jokes.put(id, new Entry(loaded, System.nanoTime() + ttlNanos));
+                    }
+                }
+            });
+            load.complete(joke);
+            return joke;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(id, load);
+        }
+    }
+
+    int size() {
+        synchronized (jokes) {
+            return jokes.size();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJokeChange(JokeChangeEvent change) {
+        synchronized (jokes) {
+            generation.incrementAndGet();
+            change.saved().forEach(joke -> jokes.remove(joke.id()));
+            change.removed().forEach(jokes::remove);
+        }
+        // later reads start a new load rather than waiting for one which may have read the joke before the change
+        change.saved().forEach(joke -> loading.remove(joke.id()));
+        change.removed().forEach(loading::remove);
+    }
+
+    @EventListener
+    public void onCatalogSnapshot(JokeCatalogSnapshot catalog) {
+        synchronized (jokes) {
+            generation.incrementAndGet();
+            jokes.clear();
+        }
+        loading.clear();
+    }
+
+    private JokeRecord getCached(UUID id) {
+        long now = System.nanoTime();
+        synchronized (jokes) {
+            Entry entry = jokes.get(id);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expires() - now > 0) {
+                return entry.joke();
+            }
+            jokes.remove(id);
+        }
+        expirations.increment();
+        return null;
+    }
+
+    private static Optional<JokeRecord> await(CompletableFuture<Optional<JokeRecord>> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Counter gets(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("jotd.jokes.cache.gets")
+                .description("Lookups of jokes by id: hits, misses which load the joke, and misses which wait for another load")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter evictions(MeterRegistry meterRegistry, String cause) {
+        return Counter.builder("jotd.jokes.cache.evictions")
+                .description("Jokes dropped from the cache by id to make room or because they expired")
+                .tag("cause", cause)
+                .register(meterRegistry);
+    }
+}
@@ -1,16 +1,213 @@
 package com.thedamones.fusionauth.jotd.jokes;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+/**
+ * Every query runs in a read-only transaction unless it joins one already in progress, so reads made outside a
+ * service transaction, such as loading the joke of the day, can still be routed to a read replica.  The updates and
+ * deletes declare their own read-write transactions.
+ */
+@Transactional(readOnly = true)
 public interface JokeRepository extends JpaRepository<Joke, UUID> {
 
+    // the text columns, selected as null unless requested so their values aren't returned by the database
+    String JOKE_RECORD_TEXT = "case when :joke = true then j.joke end, case when :description = true then j.description end";
+
     Optional<Joke> findByDate(LocalDate date);
 
-    Page<Joke> findAllByDateGreaterThanEqual(LocalDate date, Pageable pageable);
+    /**
+     * Returns a page of jokes projected straight to {@link JokeRecord}s, so they are never added to the persistence
+     * context.  The joke and description are only read if requested, and are otherwise {@code null}.
+     */
+    @Query(value = "select new com.thedamones.fusionauth.jotd.jokes.JokeRecord(j.id, j.date, " + JOKE_RECORD_TEXT + ", j.version, j.lastModified) " +
+            "from Joke j",
+            countQuery = "select count(j) from Joke j")
+    Page<JokeRecord> findJokeRecords(@Param("joke") boolean joke, @Param("description") boolean description, Pageable pageable);
+
+    /**
+     * Returns a page of the jokes on or after the given date, projected as for {@link #findJokeRecords(boolean, boolean, Pageable)}.
+     */
+    @Query(value = "select new com.thedamones.fusionauth.jotd.jokes.JokeRecord(j.id, j.date, " + JOKE_RECORD_TEXT + ", j.version, j.lastModified) " +
+            "from Joke j where j.date >= :date",
+            countQuery = "select count(j) from Joke j where j.date >= :date")
+    Page<JokeRecord> findJokeRecordsByDateGreaterThanEqual(@Param("date") LocalDate date, @Param("joke") boolean joke,
+                                                           @Param("description") boolean description, Pageable pageable);
+
+    List<Joke> findAllByDateBetweenOrderByDateAsc(LocalDate startDate, LocalDate endDate);
+
+    List<Joke> findAllByDateBetweenOrderByDateAsc(LocalDate startDate, LocalDate endDate, Limit limit);
+
+    Optional<Joke> findFirstByDateLessThanEqualOrderByDateDesc(LocalDate date);
+
+    Optional<Joke> findFirstByDateGreaterThanEqualOrderByDateAsc(LocalDate date);
+
+    List<Joke> findAllByOrderByDateAsc(Limit limit);
+
+    List<Joke> findAllByDateGreaterThanOrderByDateAsc(LocalDate date, Limit limit);
+
+    List<Joke> findAllByDateLessThanOrderByDateDesc(LocalDate date, Limit limit);
+
+    List<Joke> findAllByDateLessThanAndDateGreaterThanOrderByDateDesc(LocalDate before, LocalDate after, Limit limit);
+
+    /**
+     * Updates the joke in a single statement if it is still at the given version, incrementing the version as
+     * Hibernate would for a managed entity.  Any managed instance of the joke is not updated.
+     *
+     * @return the number of jokes updated, which is {@code 0} if the joke doesn't exist or is at another version
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("update Joke j set j.date = :date, j.joke = :joke, j.description = :description, j.version = :version + 1, " +
+            "j.lastModified = :lastModified where j.id = :id and j.version = :version")
+    int updateJoke(@Param("id") UUID id, @Param("version") long version, @Param("date") LocalDate date, @Param("joke") String joke,
+                   @Param("description") String description, @Param("lastModified") Instant lastModified);
+
+    /**
+     * Updates the joke in a single statement whatever version it is at, incrementing the version as Hibernate would
+     * for a managed entity.  Any managed instance of the joke is not updated.
+     *
+     * @return the number of jokes updated, which is {@code 0} if the joke doesn't exist
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("update Joke j set j.date = :date, j.joke = :joke, j.description = :description, j.version = j.version + 1, " +
+            "j.lastModified = :lastModified where j.id = :id")
+    int updateJoke(@Param("id") UUID id, @Param("date") LocalDate date, @Param("joke") String joke,
+                   @Param("description") String description, @Param("lastModified") Instant lastModified);
+
+    /**
+     * Deletes the joke in a single statement, without loading it first as {@link #deleteById(Object)} does.
+     *
+     * @return the number of jokes deleted, which is {@code 0} if the joke doesn't exist
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("delete from Joke j where j.id = :id")
+    int deleteJoke(@Param("id") UUID id);
+
+    @Query("select new com.thedamones.fusionauth.jotd.jokes.JokeDate(j.id, j.date) from Joke j where j.date between :from and :to")
+    List<JokeDate> findJokeDatesByDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Counts the jokes between the given dates which are not also between the excluded dates.
+     */
+    @Query("select count(j) from Joke j where j.date between :from and :to and j.date not between :excludedFrom and :excludedTo")
+    long countByDateBetweenExcluding(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                     @Param("excludedFrom") LocalDate excludedFrom, @Param("excludedTo") LocalDate excludedTo);
+
+    /**
+     * Moves every joke between the given dates by the given number of days, incrementing their versions.  If the
+     * dates the jokes move to don't overlap the dates they move from this is a single statement.  Otherwise a single
+     * statement would briefly give two jokes the same date unless the database happened to update them in the right
+     * order, or only checked the unique {@code date} constraint at the end of the statement as H2 does, so the jokes
+     * are first moved past every other joke and the new dates, and then to the new dates.  Neither statement moves a
+     * joke onto a date which another joke still has, whatever order the rows are updated in.
+     *
+     * @return the number of jokes moved
+     */
+    @Transactional
+    default int shiftJokes(LocalDate from, LocalDate to, long days, Instant lastModified) {
+        LocalDate newFrom = from.plusDays(days);
+        LocalDate newTo = to.plusDays(days);
+        if (newTo.isBefore(from) || newFrom.isAfter(to)) {
+            return moveJokes(from, to, days, lastModified);
+        }
+        LocalDate latest = findLatestDate().orElse(null);
+        if (latest == null || latest.isBefore(from)) {
+            return 0;
+        }
+        long offset = ChronoUnit.DAYS.between(from, latest.isAfter(newTo) ? latest : newTo) + 1;
+        if (offsetDates(from, to, offset) == 0) {
+            return 0;
+        }
+        return moveJokes(from.plusDays(offset), to.plusDays(offset), days - offset, lastModified);
+    }
+
+    /**
+     * Moves every joke between the given dates by the given number of days in a single statement, incrementing their
+     * versions.
+     *
+     * @return the number of jokes moved
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("update Joke j set j.date = j.date + (:days) day, j.version = j.version + 1, j.lastModified = :lastModified " +
+            "where j.date between :from and :to")
+    int moveJokes(@Param("from") LocalDate from, @Param("to") LocalDate to, @Param("days") long days,
+                  @Param("lastModified") Instant lastModified);
+
+    /**
+     * Moves the date of every joke between the given dates by the given number of days in a single statement, without
+     * changing their versions, as the first step of {@link #shiftJokes(LocalDate, LocalDate, long, Instant)}.
+     *
+     * @return the number of jokes moved
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("update Joke j set j.date = j.date + (:days) day where j.date between :from and :to")
+    int offsetDates(@Param("from") LocalDate from, @Param("to") LocalDate to, @Param("days") long days);
+
+    /**
+     * Sets the description of every joke between the given dates in a single statement, incrementing their versions.
+     *
+     * @return the number of jokes updated
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("update Joke j set j.description = :description, j.version = j.version + 1, j.lastModified = :lastModified " +
+            "where j.date between :from and :to")
+    int updateDescriptions(@Param("from") LocalDate from, @Param("to") LocalDate to, @Param("description") String description,
+                           @Param("lastModified") Instant lastModified);
+
+    /**
+     * Deletes every joke between the given dates in a single statement.
+     *
+     * @return the number of jokes deleted
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("delete from Joke j where j.date between :from and :to")
+    int deleteJokes(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("select max(j.date) from Joke j")
+    Optional<LocalDate> findLatestDate();
+
+    @Query("select new com.thedamones.fusionauth.jotd.jokes.JokeDate(j.id, j.date) from Joke j where j.date in :dates")
+    List<JokeDate> findJokeDatesByDateIn(@Param("dates") Collection<LocalDate> dates);
+
+    /**
+     * Streams the id and date of every joke in date order.  Must be called within a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.thedamones.fusionauth.jotd.jokes.JokeDate(j.id, j.date) from Joke j order by j.date")
+    Stream<JokeDate> streamJokeDates();
+
+    /**
+     * Streams the jokes between the given dates (either of which may be {@code null} for an open range) in date
+     * order.  Jokes are projected straight to {@link JokeRecord}s so they are never added to the persistence context,
+     * keeping memory use constant however many rows are read.  Must be called within a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.thedamones.fusionauth.jotd.jokes.JokeRecord(j.id, j.date, j.joke, j.description, j.version, j.lastModified) " +
+            "from Joke j where (:from is null or j.date >= :from) and (:to is null or j.date <= :to) order by j.date")
+    Stream<JokeRecord> streamJokeRecords(@Param("from") LocalDate from, @Param("to") LocalDate to);
 }
@@ -2,89 +2,704 @@ package com.thedamones.fusionauth.jotd.jokes;
 
 import com.thedamones.fusionauth.jotd.config.IsAdmin;
 import com.thedamones.fusionauth.jotd.config.IsUser;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.orm.jpa.JpaSystemException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class JokeService {
 
     private static final Logger logger = LoggerFactory.getLogger(JokeService.class);
 
+    static final String OPERATION_TIMER = "jotd.jokes.operations";
+    static final String ERROR_COUNTER = "jotd.jokes.errors";
+    static final String STALE_JOKE_OF_THE_DAY_COUNTER = "jotd.jokes.joke-of-the-day.stale";
+
+    // how long to wait before trying again to refresh a stale joke of the day which failed to load
+    private static final Duration REFRESH_RETRY_DELAY = Duration.ofSeconds(1);
+
     private final JokeRepository jokeRepository;
     private final ConversionService conversionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final RecurringJokeService recurringJokeService;
+    private final JokeCatalogSnapshotService catalogSnapshotService;
+    private final JokeRecordCache jokeCache;
+    private final Duration refreshTimeout;
+
+    // the joke of the day for each date which is today somewhere, shared by every time zone on that date
+    private final ConcurrentMap<LocalDate, JokeOfTheDay> jokesOfTheDay = new ConcurrentHashMap<>();
+    private final AtomicLong jokeOfTheDayGeneration = new AtomicLong();
+    // the last snapshots loaded for dates whose snapshot has been evicted, served if a new one can't be loaded in time
+    private final ConcurrentMap<LocalDate, JokeOfTheDay> staleJokesOfTheDay = new ConcurrentHashMap<>();
+    private final ConcurrentMap<LocalDate, CompletableFuture<JokeOfTheDay>> jokeOfTheDayRefreshes = new ConcurrentHashMap<>();
+    private final Executor jokeOfTheDayRefresher = task -> Thread.ofVirtual().name("joke-of-the-day-refresh").start(task);
+
+    // null until loaded, in which case lookups by date go to the repository
+    private volatile JokeDateIndex dateIndex;
+    // changes committed while the date index is being loaded, replayed onto it once it is complete
+    private List<JokeChangeEvent> pendingDateIndexChanges;
 
     @Autowired
-    public JokeService(JokeRepository jokeRepository, ConversionService conversionService) {
+    public JokeService(JokeRepository jokeRepository, ConversionService conversionService, ApplicationEventPublisher eventPublisher,
+                       MeterRegistry meterRegistry, RecurringJokeService recurringJokeService,
+                       JokeCatalogSnapshotService catalogSnapshotService, JokeRecordCache jokeCache,
+                       @Value("${jotd.joke-of-the-day.refresh-timeout:250ms}") Duration refreshTimeout) {
         this.jokeRepository = jokeRepository;
         this.conversionService = conversionService;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.recurringJokeService = recurringJokeService;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.jokeCache = jokeCache;
+        this.refreshTimeout = refreshTimeout;
     }
 
+    /**
+     * Returns a page of jokes.  The jokes are projected straight to {@link JokeRecord}s by the query rather than
+     * loaded as entities, so a large page isn't held in the persistence context or converted joke by joke.
+     *
+     * @param date if not {@code null}, only jokes on or after this date are returned
+     * @param fields the fields to read, the others being {@code null}
+     */
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "getJokes"}, histogram = true)
     @IsUser
-    public Page<JokeRecord> getJokes(LocalDate date, Pageable pageable) {
-        Page<Joke> jokes;
+    @Transactional(readOnly = true)
+    public Page<JokeRecord> getJokes(LocalDate date, JokeFields fields, Pageable pageable) {
         if (date == null) {
-            jokes = jokeRepository.findAll(pageable);
+            return jokeRepository.findJokeRecords(fields.joke(), fields.description(), pageable);
         }
         else {
-            jokes = jokeRepository.findAllByDateGreaterThanEqual(date, pageable);
+            return jokeRepository.findJokeRecordsByDateGreaterThanEqual(date, fields.joke(), fields.description(), pageable);
+        }
+    }
+
+    /**
+     * Returns a slice of jokes in date order using keyset pagination: the slice is located by seeking on the unique
+     * {@code date} column rather than by offset, so every slice costs the same however deep it is, and no count
+     * query is run.
+     *
+     * @param date if not {@code null}, only jokes on or after this date are returned
+     * @param after if not {@code null}, the slice following this cursor is returned
+     * @param before if not {@code null} (and {@code after} is {@code null}), the slice preceding this cursor is returned
+     * @param size the maximum number of jokes in the slice
+     */
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "scrollJokes"}, histogram = true)
+    @IsUser
+    @Transactional(readOnly = true)
+    public JokeSlice scrollJokes(LocalDate date, JokeCursor after, JokeCursor before, int size) {
+        // dates are discrete, so "on or after date" is the same as "after the day before date"
+        LocalDate lowerBound = date == null ? null : date.minusDays(1);
+        Limit limit = Limit.of(size + 1);
+        if (after == null && before != null) {
+            List<Joke> jokes = lowerBound == null
+                    ? jokeRepository.findAllByDateLessThanOrderByDateDesc(before.date(), limit)
+                    : jokeRepository.findAllByDateLessThanAndDateGreaterThanOrderByDateDesc(before.date(), lowerBound, limit);
+            boolean hasPrevious = jokes.size() > size;
+            List<JokeRecord> records = jokes.stream()
+                    .limit(size)
+                    .map(toJokeRecord())
+                    .collect(Collectors.toCollection(ArrayList::new))
+                    .reversed();
+            return toJokeSlice(records, hasPrevious, true);
+        }
+        if (after != null && (lowerBound == null || after.date().isAfter(lowerBound))) {
+            lowerBound = after.date();
+        }
+        List<Joke> jokes = lowerBound == null
+                ? jokeRepository.findAllByOrderByDateAsc(limit)
+                : jokeRepository.findAllByDateGreaterThanOrderByDateAsc(lowerBound, limit);
+        boolean hasNext = jokes.size() > size;
+        List<JokeRecord> records = jokes.stream()
+                .limit(size)
+                .map(toJokeRecord())
+                .toList();
+        return toJokeSlice(records, after != null, hasNext);
+    }
+
+    /**
+     * Passes every joke between the given dates (either of which may be {@code null}) to the consumer in date order,
+     * reading them from a single streamed query in a read-only transaction.
+     */
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "exportJokes"}, histogram = true)
+    @IsUser
+    @Transactional(readOnly = true)
+    public void exportJokes(LocalDate from, LocalDate to, Consumer<JokeRecord> consumer) {
+        try (Stream<JokeRecord> jokes = jokeRepository.streamJokeRecords(from, to)) {
+            jokes.forEach(consumer);
+        }
+    }
+
+    /**
+     * Finds the joke matching the date.  The joke is located with the in-memory date index, so only the joke itself
+     * is read from the database, and a date without a matching joke is answered without a query.  Until the index
+     * has been loaded, or if it is out of step with the database, the joke is found with a repository query instead.
+     * When serving from a catalog snapshot the joke is read from the snapshot.  It isn't transactional so serving
+     * from a snapshot never starts a transaction; each query runs in the read-only transaction {@link JokeRepository}
+     * declares for its reads, so it can be routed to a read replica.
+     */
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "findJoke"}, histogram = true)
+    @IsUser
+    public Optional<JokeRecord> findJoke(LocalDate date, JokeDateMatch match) {
+        Optional<JokeCatalogSnapshot> catalog = catalogSnapshotService.getSnapshot();
+        if (catalog.isPresent()) {
+            return catalog.get().find(date, match);
+        }
+        JokeDateIndex index = dateIndex;
+        if (index != null) {
+            Optional<JokeDate> entry = index.find(date, match);
+            if (entry.isEmpty()) {
+                return Optional.empty();
+            }
+            Optional<Joke> joke = jokeRepository.findById(entry.get().id())
+                    .filter(found -> entry.get().date().equals(found.getDate()));
+            if (joke.isPresent()) {
+                return joke.map(toJokeRecord());
+            }
+            logger.debug("Date index is out of step for {}, falling back to the repository", entry.get());
+        }
+        return findJokeInRepository(date, match).map(toJokeRecord());
+    }
+
+    /**
+     * Returns a slice of the jokes between the given (inclusive) dates in date order.  The jokes in the range are
+     * located with the in-memory date index and read by id, falling back to a range query until the index has been
+     * loaded or if it is out of step with the database.  When serving from a catalog snapshot the jokes are read
+     * from the snapshot.
+     *
+     * @param size the maximum number of jokes in the slice; if there are more the slice has a {@code next} cursor
+     */
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "getJokesBetween"}, histogram = true)
+    @IsUser
+    public JokeSlice getJokesBetween(LocalDate from, LocalDate to, int size) {
+        List<JokeRecord> jokes = catalogSnapshotService.getSnapshot()
+                .map(catalog -> catalog.between(from, to, size + 1))
+                .orElse(null);
+        JokeDateIndex index = dateIndex;
+        if (jokes == null && index != null) {
+            jokes = toJokeRecords(findJokes(index.between(from, to, size + 1)));
+        }
+        if (jokes == null) {
+            jokes = toJokeRecords(jokeRepository.findAllByDateBetweenOrderByDateAsc(from, to, Limit.of(size + 1)));
+        }
+        boolean hasNext = jokes.size() > size;
+        return toJokeSlice(hasNext ? jokes.subList(0, size) : jokes, false, hasNext);
+    }
+
+    /**
+     * Loads the date index once the application has started.  Changes committed while it loads are buffered and
+     * applied once it is complete.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadDateIndex() {
+        if (catalogSnapshotService.isServing()) {
+            // dates are looked up in the catalog snapshot instead
+            return;
+        }
+        synchronized (this) {
+            pendingDateIndexChanges = new ArrayList<>();
+        }
+        JokeDateIndex index;
+        try (Stream<JokeDate> jokes = jokeRepository.streamJokeDates()) {
+            index = JokeDateIndex.of(jokes);
+        }
+        synchronized (this) {
+            for (JokeChangeEvent change : pendingDateIndexChanges) {
+                index = withChange(index, change);
+            }
+            pendingDateIndexChanges = null;
+            dateIndex = index;
+        }
+        logger.info("Loaded date index of {} jokes", index.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onJokeChange(JokeChangeEvent change) {
+        if (pendingDateIndexChanges != null) {
+            pendingDateIndexChanges.add(change);
+        }
+        if (dateIndex != null) {
+            dateIndex = withChange(dateIndex, change);
         }
-        return jokes.map(toJokeRecord());
     }
 
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "addJoke"}, histogram = true)
     @IsAdmin
     @Transactional
     public JokeRecord addJoke(CreateJokeRecord request) {
+        evictJokeOfTheDay(snapshot -> snapshot.touches(request.date()));
         return createJoke(request)
                 .map(this::saveJoke)
                 .map(toJokeRecord())
+                .map(publishSaved())
                 .orElseThrow(jokeServiceException("Exception while adding joke"));
     }
 
+    /**
+     * Adds all the jokes in a single transaction.  The inserts are flushed together so they can be sent to the
+     * database as JDBC batches.  If any joke can't be saved none of them are.
+     */
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "addJokes"}, histogram = true)
+    @IsAdmin
+    @Transactional
+    public List<JokeRecord> addJokes(List<CreateJokeRecord> requests) {
+        evictJokeOfTheDay(snapshot -> requests.stream().anyMatch(request -> snapshot.touches(request.date())));
+        List<Joke> jokes = requests.stream()
+                .map(this::createJoke)
+                .flatMap(Optional::stream)
+                .toList();
+        List<JokeRecord> saved = saveJokes(jokes).stream()
+                .map(toJokeRecord())
+                .toList();
+        eventPublisher.publishEvent(JokeChangeEvent.saved(saved));
+        return saved;
+    }
+
+    /**
+     * Returns the joke with the id, read from the catalog snapshot when serving from one.  It isn't transactional so
+     * serving from a snapshot never starts a transaction; otherwise the joke is read from the {@link JokeRecordCache},
+     * and on a miss in a read-only repository transaction shared by every concurrent request for the id.
+     */
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "getJoke"}, histogram = true)
     @IsUser
     public JokeRecord getJoke(UUID id) {
-        return jokeRepository.findById(id)
-                .map(toJokeRecord())
+        Optional<JokeCatalogSnapshot> catalog = catalogSnapshotService.getSnapshot();
+        if (catalog.isPresent()) {
+            return catalog.get().findById(id)
+                    .orElseThrow(jokeNotFoundException(id));
+        }
+        return jokeCache.get(id, key -> jokeRepository.findById(key).map(toJokeRecord()))
                 .orElseThrow(jokeNotFoundException(id));
     }
 
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "getJokeOfTheDay"}, histogram = true)
     public JokeRecord getJokeOfTheDay() {
-        LocalDate today = LocalDate.now();
-        return jokeRepository.findByDate(today)
-                .map(toJokeRecord())
-                .orElseThrow(noJokeOfTheDayException(today));
+        return getJokeOfTheDaySnapshot().joke();
+    }
+
+    /**
+     * Returns the cached snapshot of today's joke and the next day's joke in the server's time zone.
+     *
+     * @throws NoJokeOfTheDayException if there is no joke for today
+     * @see #getJokeOfTheDaySnapshot(ZoneId)
+     */
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "getJokeOfTheDay"}, histogram = true)
+    public JokeOfTheDay getJokeOfTheDaySnapshot() {
+        return getJokeOfTheDaySnapshot(ZoneId.systemDefault());
+    }
+
+    /**
+     * Returns the cached snapshot of today's joke and the next day's joke, where today is the current date in the
+     * given time zone.  Snapshots are cached by date, so every time zone on the same date shares one.  A snapshot is
+     * rebuilt after a write touching either date has been committed, and {@link #warmJokesOfTheDay(Duration)} builds
+     * the next date's snapshot ahead of rollover, so steady-state reads never query the database.  It isn't
+     * transactional so the cached path never starts a transaction; the snapshot is loaded with a single query, which
+     * runs in the read-only transaction {@link JokeRepository} declares for its reads, so it can be routed to a read
+     * replica, or from the catalog snapshot when serving from one.
+     * <p>
+     * A snapshot evicted by a write is kept as the last known good one for its date.  The next request reloads it in
+     * the background, waiting at most {@code jotd.joke-of-the-day.refresh-timeout}, and is given the stale snapshot
+     * (see {@link JokeOfTheDay#isStale()}) if the load fails or takes longer, as are requests while the load is still
+     * running.  Trouble with the database then costs freshness rather than failing or slowing the joke of the day.
+     *
+     * @throws NoJokeOfTheDayException if there is no joke for today
+     */
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "getJokeOfTheDay"}, histogram = true)
+    public JokeOfTheDay getJokeOfTheDaySnapshot(ZoneId zone) {
+        LocalDate today = LocalDate.now(zone);
+        JokeOfTheDay snapshot = jokesOfTheDay.get(today);
+        if (snapshot == null) {
+            snapshot = refreshJokeOfTheDay(today);
+        }
+        if (snapshot.joke() == null) {
+            throw noJokeOfTheDayException(today).get();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Loads the snapshot for every date which is today somewhere in the world, and for the next date if it starts
+     * anywhere within {@code ahead}, so no request has to load one at rollover.  Dates which are already loaded aren't
+     * loaded again, and the rest are loaded with a single query.
+     */
+    public void warmJokesOfTheDay(Duration ahead) {
+        LocalDate from = JokeOfTheDay.earliestDate();
+        LocalDate to = LocalDate.ofInstant(Instant.now().plus(ahead), ZoneOffset.MAX);
+        while (!from.isAfter(to) && jokesOfTheDay.containsKey(from)) {
+            from = from.plusDays(1);
+        }
+        while (!to.isBefore(from) && jokesOfTheDay.containsKey(to)) {
+            to = to.minusDays(1);
+        }
+        if (!from.isAfter(to)) {
+            loadJokesOfTheDay(from, to);
+        }
     }
 
+    /**
+     * Updates the joke with a single {@code update} statement, so the joke is never loaded and its row is only locked
+     * by the update itself.  With an expected version the statement only matches the joke at that version, and
+     * whether a joke which wasn't updated is missing or at another version is only checked once the update has
+     * failed.  Without one it matches the joke whatever its version, and increments the version in the database, so
+     * the version it ends up at isn't known and the returned joke has a {@code null} version.
+     *
+     * @param expectedVersion the version the joke must be at, or {@code null} for whatever version it is at
+     */
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "updateJoke"}, histogram = true)
     @IsAdmin
     @Transactional
-    public JokeRecord updateJoke(UUID id, JokeRecord request) {
-        return jokeRepository.findById(id)
-                .map(withJokeRecord(request))
-                .map(this::saveJoke)
-                .map(toJokeRecord())
-                .orElseThrow(jokeNotFoundException(request.id()));
+    public JokeRecord updateJoke(UUID id, JokeRecord request, Long expectedVersion) {
+        if (!id.equals(request.id())) {
+            throw countError(new JokeDataOperationException("The ID of joke " + id + " can't be changed to " + request.id()));
+        }
+        evictJokeOfTheDay(snapshot -> snapshot.touches(request.date()) || snapshot.touches(id));
+        // the column only holds microseconds, so the record matches what is read back
+        Instant lastModified = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        if (expectedVersion == null) {
+            int updated = translateExceptions(() -> jokeRepository.updateJoke(id, request.date(), request.joke(),
+                    request.description(), lastModified));
+            if (updated == 0) {
+                throw jokeNotFoundException(id).get();
+            }
+            JokeRecord joke = new JokeRecord(id, request.date(), request.joke(), request.description(), null, lastModified);
+            eventPublisher.publishEvent(JokeChangeEvent.saved(joke));
+            return joke;
+        }
+        int updated = translateExceptions(() -> jokeRepository.updateJoke(id, expectedVersion, request.date(), request.joke(),
+                request.description(), lastModified));
+        if (updated == 0) {
+            if (!jokeRepository.existsById(id)) {
+                throw jokeNotFoundException(id).get();
+            }
+            throw countError(new JokeVersionConflictException("Joke with ID " + id + " has been modified"));
+        }
+        JokeRecord joke = new JokeRecord(id, request.date(), request.joke(), request.description(), expectedVersion + 1, lastModified);
+        eventPublisher.publishEvent(JokeChangeEvent.saved(joke));
+        return joke;
     }
 
+    /**
+     * Removes the joke with a single {@code delete} statement, using the number of rows deleted to tell whether it
+     * existed.
+     */
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "removeJoke"}, histogram = true)
     @IsAdmin
     @Transactional
     public void removeJoke(UUID id) {
-        if (!jokeRepository.existsById(id)) {
-            throw new JokeNotFoundException("Joke with ID " + id + " not found");
+        evictJokeOfTheDay(snapshot -> snapshot.touches(id));
+        if (translateExceptions(() -> jokeRepository.deleteJoke(id)) == 0) {
+            throw jokeNotFoundException(id).get();
+        }
+        eventPublisher.publishEvent(JokeChangeEvent.removed(id));
+    }
+
+    /**
+     * Moves every joke between the given (inclusive) dates by {@code days} with set-based {@code update} statements,
+     * two of them if the jokes move onto dates in the range (see {@link JokeRepository#shiftJokes}).  The move is
+     * rejected up front if any of the dates the jokes would move to already has a joke which isn't being moved.  The
+     * change is published as one event, so caches are only updated once.
+     *
+     * @return the number of jokes moved
+     * @throws JokeDataIntegrityException if a joke would be moved to a date which already has one
+     */
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "shiftJokes"}, histogram = true)
+    @IsAdmin
+    @Transactional
+    public int shiftJokes(LocalDate from, LocalDate to, int days) {
+        checkRange(from, to);
+        if (days == 0) {
+            throw countError(new JokeDataOperationException("Jokes can't be moved by 0 days"));
+        }
+        LocalDate newFrom = from.plusDays(days);
+        LocalDate newTo = to.plusDays(days);
+        long conflicts = jokeRepository.countByDateBetweenExcluding(newFrom, newTo, from, to);
+        if (conflicts > 0) {
+            throw countError(new JokeDataIntegrityException("Jokes from '" + from + "' to '" + to + "' can't be moved by " + days
+                    + " days, since " + conflicts + " of the dates from '" + newFrom + "' to '" + newTo + "' already have a joke"));
         }
-        jokeRepository.deleteById(id);
+        evictJokeOfTheDay(snapshot -> snapshot.touches(from, to) || snapshot.touches(newFrom, newTo));
+        Instant lastModified = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        int moved = translateExceptions(() -> jokeRepository.shiftJokes(from, to, days, lastModified));
+        if (moved > 0) {
+            publishSaved(newFrom, newTo);
+        }
+        return moved;
+    }
+
+    /**
+     * Sets the description of every joke between the given (inclusive) dates with a single {@code update} statement.
+     * The change is published as one event, so caches are only updated once.
+     *
+     * @return the number of jokes updated
+     */
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "updateDescriptions"}, histogram = true)
+    @IsAdmin
+    @Transactional
+    public int updateDescriptions(LocalDate from, LocalDate to, String description) {
+        checkRange(from, to);
+        evictJokeOfTheDay(snapshot -> snapshot.touches(from, to));
+        Instant lastModified = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        int updated = translateExceptions(() -> jokeRepository.updateDescriptions(from, to, description, lastModified));
+        if (updated > 0) {
+            publishSaved(from, to);
+        }
+        return updated;
+    }
+
+    /**
+     * Removes every joke between the given (inclusive) dates with a single {@code delete} statement.  The change is
+     * published as one event, so caches are only updated once.
+     *
+     * @return the number of jokes removed
+     * @throws JokeDataIntegrityException if the jokes in the range changed while they were being removed, in which
+     *                                    case none of them are
+     */
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "removeJokes"}, histogram = true)
+    @IsAdmin
+    @Transactional
+    public int removeJokes(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        // the ids are needed for the change event
+        List<UUID> ids = jokeRepository.findJokeDatesByDateBetween(from, to).stream()
+                .map(JokeDate::id)
+                .toList();
+        evictJokeOfTheDay(snapshot -> snapshot.touches(from, to));
+        int removed = translateExceptions(() -> jokeRepository.deleteJokes(from, to));
+        if (removed != ids.size()) {
+            // a joke was added or removed concurrently, so the event wouldn't match what was deleted
+            throw countError(new JokeDataIntegrityException("Jokes from '" + from + "' to '" + to + "' changed while being removed"));
+        }
+        if (removed > 0) {
+            eventPublisher.publishEvent(new JokeChangeEvent(List.of(), ids));
+        }
+        return removed;
+    }
+
+    private JokeSlice toJokeSlice(List<JokeRecord> jokes, boolean hasPrevious, boolean hasNext) {
+        if (jokes.isEmpty()) {
+            return new JokeSlice(jokes, null, null);
+        }
+        JokeCursor previous = hasPrevious ? new JokeCursor(jokes.getFirst().date()) : null;
+        JokeCursor next = hasNext ? new JokeCursor(jokes.getLast().date()) : null;
+        return new JokeSlice(jokes, previous, next);
+    }
+
+    private Optional<Joke> findJokeInRepository(LocalDate date, JokeDateMatch match) {
+        return switch (match) {
+            case EXACT -> jokeRepository.findByDate(date);
+            case FLOOR -> jokeRepository.findFirstByDateLessThanEqualOrderByDateDesc(date);
+            case CEILING -> jokeRepository.findFirstByDateGreaterThanEqualOrderByDateAsc(date);
+            case NEAREST -> {
+                Optional<Joke> floor = jokeRepository.findFirstByDateLessThanEqualOrderByDateDesc(date);
+                Optional<Joke> ceiling = jokeRepository.findFirstByDateGreaterThanEqualOrderByDateAsc(date);
+                if (floor.isEmpty() || (ceiling.isPresent()
+                        && ceiling.get().getDate().toEpochDay() - date.toEpochDay() < date.toEpochDay() - floor.get().getDate().toEpochDay())) {
+                    yield ceiling;
+                }
+                yield floor;
+            }
+        };
+    }
+
+    /**
+     * Reads the jokes by id in the order given, or returns {@code null} if any of them no longer exists on the same
+     * date.
+     */
+    private List<Joke> findJokes(List<JokeDate> entries) {
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Joke> jokes = jokeRepository.findAllById(entries.stream().map(JokeDate::id).toList()).stream()
+                .collect(Collectors.toMap(Joke::getId, Function.identity()));
+        List<Joke> ordered = new ArrayList<>(entries.size());
+        for (JokeDate entry : entries) {
+            Joke joke = jokes.get(entry.id());
+            if (joke == null || !entry.date().equals(joke.getDate())) {
+                logger.debug("Date index is out of step for {}, falling back to the repository", entry);
+                return null;
+            }
+            ordered.add(joke);
+        }
+        return ordered;
+    }
+
+    private static JokeDateIndex withChange(JokeDateIndex index, JokeChangeEvent change) {
+        return index.with(change.saved().stream().map(joke -> new JokeDate(joke.id(), joke.date())).toList(), change.removed());
+    }
+
+    /**
+     * Loads the snapshot for the date, or if there is a stale snapshot for it, loads it in the background and returns
+     * the stale snapshot unless the load succeeds within the refresh timeout.  Only one load runs for each date, and
+     * after one fails the stale snapshot is returned without trying again for {@link #REFRESH_RETRY_DELAY}, so an
+     * unavailable database isn't sent a query for every request.
+     */
+    private JokeOfTheDay refreshJokeOfTheDay(LocalDate date) {
+        JokeOfTheDay stale = staleJokesOfTheDay.get(date);
+        if (stale == null) {
+            // nothing to fall back to
+            return loadJokesOfTheDay(date, date).getFirst();
+        }
+        CompletableFuture<JokeOfTheDay> refresh = new CompletableFuture<>();
+        if (jokeOfTheDayRefreshes.putIfAbsent(date, refresh) != null) {
+            return serveStale(stale);
+        }
+        jokeOfTheDayRefresher.execute(() -> {
+            try {
+                refresh.complete(loadJokesOfTheDay(date, date).getFirst());
+                jokeOfTheDayRefreshes.remove(date, refresh);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to refresh the joke of the day for {}, serving the snapshot from {}", date, stale.staleSince(), e);
+                refresh.completeExceptionally(e);
+                CompletableFuture.delayedExecutor(REFRESH_RETRY_DELAY.toMillis(), TimeUnit.MILLISECONDS)
+                        .execute(() -> jokeOfTheDayRefreshes.remove(date, refresh));
+            }
+        });
+        try {
+            return refresh.get(refreshTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            return serveStale(stale);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return serveStale(stale);
+        }
+    }
+
+    private JokeOfTheDay serveStale(JokeOfTheDay stale) {
+        meterRegistry.counter(STALE_JOKE_OF_THE_DAY_COUNTER).increment();
+        return stale;
+    }
+
+    /**
+     * Loads and caches the snapshots for the given (inclusive) dates with a single query, which also reads the joke
+     * for the day after {@code to}.
+     */
+    private List<JokeOfTheDay> loadJokesOfTheDay(LocalDate from, LocalDate to) {
+        long generation = jokeOfTheDayGeneration.get();
+        LocalDate last = to.plusDays(1);
+        int days = (int) (last.toEpochDay() - from.toEpochDay()) + 1;
+        List<JokeRecord> jokes = catalogSnapshotService.getSnapshot()
+                .map(catalog -> catalog.between(from, last, days))
+                .orElseGet(() -> toJokeRecords(jokeRepository.findAllByDateBetweenOrderByDateAsc(from, last)));
+        List<JokeOfTheDay> snapshots = new ArrayList<>(days - 1);
+        JokeRecord joke = findJokeRecord(jokes, from);
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            JokeRecord nextDay = findJokeRecord(jokes, date.plusDays(1));
+            snapshots.add(new JokeOfTheDay(date, joke, nextDay));
+            joke = nextDay;
+        }
+        // dates which are no longer today anywhere won't be asked for again
+        LocalDate earliest = JokeOfTheDay.earliestDate();
+        jokesOfTheDay.keySet().removeIf(date -> date.isBefore(earliest));
+        staleJokesOfTheDay.keySet().removeIf(date -> date.isBefore(earliest));
+        for (JokeOfTheDay snapshot : snapshots) {
+            jokesOfTheDay.put(snapshot.date(), snapshot);
+        }
+        // a write committed while loading may not be visible in these snapshots, so don't keep them around
+        if (jokeOfTheDayGeneration.get() != generation) {
+            snapshots.forEach(snapshot -> jokesOfTheDay.remove(snapshot.date(), snapshot));
+        } else {
+            snapshots.forEach(snapshot -> staleJokesOfTheDay.remove(snapshot.date()));
+        }
+        return snapshots;
+    }
+
+    /**
+     * Returns the joke stored for the date, falling back to the recurring joke for its month-day.
+     */
+    private JokeRecord findJokeRecord(List<JokeRecord> jokes, LocalDate date) {
+        return jokes.stream()
+                .filter(joke -> date.equals(joke.date()))
+                .findFirst()
+                .or(() -> recurringJokeService.getJokeFor(date))
+                .orElse(null);
+    }
+
+    @EventListener
+    public void onRecurringJokeChange(RecurringJokeChangeEvent change) {
+        // the change has already been committed, so evict straight away
+        evictJokeOfTheDayNow(snapshot -> change.monthDays().stream().anyMatch(snapshot::touches));
+    }
+
+    @EventListener
+    public void onCatalogSnapshot(JokeCatalogSnapshot catalog) {
+        // the joke of the day may have been loaded from the previous catalog snapshot
+        evictJokeOfTheDayNow(snapshot -> true);
+    }
+
+    /**
+     * Evicts the joke of the day snapshots which the given change would make stale.  Eviction is deferred until the
+     * surrounding transaction commits so a concurrent reader can't rebuild the snapshot from uncommitted state.
+     */
+    private void evictJokeOfTheDay(Predicate<JokeOfTheDay> stale) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictJokeOfTheDayNow(stale);
+                }
+            });
+        }
+        else {
+            evictJokeOfTheDayNow(stale);
+        }
+    }
+
+    private void evictJokeOfTheDayNow(Predicate<JokeOfTheDay> stale) {
+        // always bump the generation so a snapshot being loaded concurrently is discarded
+        jokeOfTheDayGeneration.incrementAndGet();
+        Instant now = Instant.now();
+        jokesOfTheDay.values().removeIf(snapshot -> {
+            if (!stale.test(snapshot)) {
+                return false;
+            }
+            staleJokesOfTheDay.put(snapshot.date(), snapshot.asStale(now));
+            return true;
+        });
     }
 
     private Optional<Joke> createJoke(CreateJokeRecord request) {
@@ -95,45 +710,83 @@ public class JokeService {
         return Optional.of(joke);
     }
 
-    private Function<Joke, Joke> withJokeRecord(JokeRecord request) {
-        return joke -> {
-            joke.setId(request.id());
-            joke.setDate(request.date());
-            joke.setJoke(request.joke());
-            joke.setDescription(request.description());
-            return joke;
-        };
+    private Joke saveJoke(Joke joke) {
+        return translateExceptions(() -> jokeRepository.saveAndFlush(joke));
     }
 
-    private Joke saveJoke(Joke joke) {
+    private List<Joke> saveJokes(List<Joke> jokes) {
+        return translateExceptions(() -> {
+            List<Joke> saved = jokeRepository.saveAll(jokes);
+            jokeRepository.flush();
+            return saved;
+        });
+    }
+
+    private <T> T translateExceptions(Supplier<T> operation) {
         try {
-            return jokeRepository.saveAndFlush(joke);
+            return operation.get();
         } catch (Exception e) {
-            if (e instanceof JpaSystemException) {
-                throw new JokeDataOperationException(e);
+            if (e instanceof OptimisticLockingFailureException) {
+                throw countError(new JokeVersionConflictException(e));
+            }
+            else if (e instanceof JpaSystemException) {
+                throw countError(new JokeDataOperationException(e));
             }
             else if (e instanceof DataIntegrityViolationException) {
-                throw new JokeDataIntegrityException(e);
+                throw countError(new JokeDataIntegrityException(e));
             } else {
-                throw new JokeServiceException("Exception while saving joke", e);
+                throw countError(new JokeServiceException("Exception while saving joke", e));
             }
         }
     }
 
+    private void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw countError(new JokeDataOperationException("Date range from '" + from + "' to '" + to + "' is empty"));
+        }
+    }
+
+    /**
+     * Publishes the jokes now between the given dates as saved, reading them back in a single query.
+     */
+    private void publishSaved(LocalDate from, LocalDate to) {
+        List<JokeRecord> saved;
+        try (Stream<JokeRecord> jokes = jokeRepository.streamJokeRecords(from, to)) {
+            saved = jokes.toList();
+        }
+        eventPublisher.publishEvent(JokeChangeEvent.saved(saved));
+    }
+
+    private Function<JokeRecord, JokeRecord> publishSaved() {
+        return joke -> {
+            eventPublisher.publishEvent(JokeChangeEvent.saved(joke));
+            return joke;
+        };
+    }
+
+    private List<JokeRecord> toJokeRecords(List<Joke> jokes) {
+        return jokes == null ? null : jokes.stream().map(toJokeRecord()).toList();
+    }
+
     private Function<Joke, JokeRecord> toJokeRecord() {
         return joke -> conversionService.convert(joke, JokeRecord.class);
     }
 
     private Supplier<JokeNotFoundException> jokeNotFoundException(UUID id) {
-        return () -> new JokeNotFoundException("Joke with ID " + id + " not found");
+        return () -> countError(new JokeNotFoundException("Joke with ID " + id + " not found"));
     }
 
     private Supplier<NoJokeOfTheDayException> noJokeOfTheDayException(LocalDate date) {
-        return () -> new NoJokeOfTheDayException("No Joke for date '" + date + "' exists");
+        return () -> countError(new NoJokeOfTheDayException("No Joke for date '" + date + "' exists"));
     }
 
     private Supplier<JokeServiceException> jokeServiceException(String message) {
-        return () -> new JokeServiceException(message);
+        return () -> countError(new JokeServiceException(message));
+    }
+
+    private <E extends RuntimeException> E countError(E exception) {
+        meterRegistry.counter(ERROR_COUNTER, "exception", exception.getClass().getSimpleName()).increment();
+        return exception;
     }
 
 }
@@ -0,0 +1,22 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A slice of jokes in date order retrieved by keyset pagination.
+ *
+ * @param jokes the jokes in the slice
+ * @param previous the cursor to seek to the preceding slice, or {@code null} if this is the first slice
+ * @param next the cursor to seek to the following slice, or {@code null} if this is the last slice
+ */
+public record JokeSlice(List<JokeRecord> jokes, JokeCursor previous, JokeCursor next) {
+
+    public Optional<JokeCursor> getPrevious() {
+        return Optional.ofNullable(previous);
+    }
+
+    public Optional<JokeCursor> getNext() {
+        return Optional.ofNullable(next);
+    }
+}
@@ -12,7 +12,9 @@ public class JokeToJokeRecordConverter implements Converter<Joke, JokeRecord> {
                 source.getId(),
                 source.getDate(),
                 source.getJoke(),
-                source.getDescription()
+                source.getDescription(),
+                source.getVersion(),
+                source.getLastModified()
         );
     }
 }
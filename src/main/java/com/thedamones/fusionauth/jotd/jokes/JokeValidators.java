@@ -0,0 +1,55 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+
+import java.util.UUID;
+
+/**
+ * Builds and parses the HTTP validators ({@code ETag}s) for joke resources.
+ * <p>
+ * A strong ETag has the form {@code "<id>.<version>.<links>"}, where {@code links} is a hash of the model's links,
+ * so the ETag changes when either the joke is modified (its {@code @Version} is incremented) or its links change
+ * (e.g. a joke is added for the next day).
+ */
+public final class JokeValidators {
+
+    private JokeValidators() {
+    }
+
+    public static String eTag(EntityModel<JokeRecord> model) {
+        JokeRecord joke = model.getContent();
+        int links = 1;
+        for (Link link : model.getLinks()) {
+            links = 31 * links + link.getRel().value().hashCode();
+            links = 31 * links + link.getHref().hashCode();
+        }
+        long version = joke.version() == null ? 0L : joke.version();
+        return "\"" + joke.id() + "." + version + "." + Integer.toHexString(links) + "\"";
+    }
+
+    /**
+     * Returns the version encoded in the given {@code If-Match} ETag, or {@code null} if the header is {@code *}
+     * meaning any version matches.
+     *
+     * @throws JokeVersionConflictException if the ETag is not a strong ETag for the joke with the given id
+     */
+    public static Long parseVersion(String eTag, UUID id) {
+        String value = eTag.trim();
+        if ("*".equals(value)) {
+            return null;
+        }
+        if (value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"")) {
+            throw new JokeVersionConflictException("If-Match '" + eTag + "' is not a strong ETag");
+        }
+        String[] parts = value.substring(1, value.length() - 1).split("\\.");
+        try {
+            if (parts.length < 2 || !UUID.fromString(parts[0]).equals(id)) {
+                throw new JokeVersionConflictException("If-Match '" + eTag + "' does not match joke with ID " + id);
+            }
+            return Long.valueOf(parts[1]);
+        } catch (IllegalArgumentException e) {
+            throw new JokeVersionConflictException("If-Match '" + eTag + "' does not match joke with ID " + id);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+public class JokeVersionConflictException extends RuntimeException {
+
+    public JokeVersionConflictException(String message) {
+        super(message);
+    }
+
+    public JokeVersionConflictException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,94 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.Instant;
+import java.time.MonthDay;
+import java.util.UUID;
+
+/**
+ * A joke told every year on the same month and day, used as the joke of the day when no joke exists for the exact
+ * date.  Several recurring jokes can share a month and day, in which case they take turns year by year.
+ */
+@Entity
+public class RecurringJoke {
+
+    @Id
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
+    private UUID id;
+
+    private int monthOfYear;
+
+    private int dayOfMonth;
+
+    private String joke;
+
+    private String description;
+
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
+    @UpdateTimestamp
+    private Instant lastModified;
+
+    /**
+     * Default constructor for JPA.
+     */
+    public RecurringJoke() {
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public MonthDay getMonthDay() {
+        return MonthDay.of(monthOfYear, dayOfMonth);
+    }
+
+    public void setMonthDay(MonthDay monthDay) {
+        this.monthOfYear = monthDay.getMonthValue();
+        this.dayOfMonth = monthDay.getDayOfMonth();
+    }
+
+    public String getJoke() {
+        return joke;
+    }
+
+    public void setJoke(String joke) {
+        this.joke = joke;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
+}
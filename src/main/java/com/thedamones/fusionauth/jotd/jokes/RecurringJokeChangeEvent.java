@@ -0,0 +1,13 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import java.time.MonthDay;
+import java.util.Set;
+
+/**
+ * Published by {@link RecurringJokeService} once a change to recurring jokes has been committed and applied to its
+ * index.  It is published outside of any transaction, so it is delivered to plain {@code @EventListener}s.
+ *
+ * @param monthDays the month-days whose recurring jokes changed
+ */
+public record RecurringJokeChangeEvent(Set<MonthDay> monthDays) {
+}
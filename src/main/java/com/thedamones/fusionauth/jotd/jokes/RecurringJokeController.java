@@ -0,0 +1,101 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.validation.Valid;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.MonthDay;
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+@RestController
+@RequestMapping("/api/v1/recurring-jokes")
+public class RecurringJokeController {
+
+    private final RecurringJokeService recurringJokeService;
+    private final PagedResourcesAssembler<RecurringJokeRecord> pagedResourcesAssembler;
+
+    public RecurringJokeController(RecurringJokeService recurringJokeService,
+                                   PagedResourcesAssembler<RecurringJokeRecord> pagedResourcesAssembler) {
+        this.recurringJokeService = recurringJokeService;
+        this.pagedResourcesAssembler = pagedResourcesAssembler;
+    }
+
+    @GetMapping
+    @SecurityRequirement(name = "basicAuth")
+    public PagedModel<EntityModel<RecurringJokeRecord>> getRecurringJokes(@ParameterObject Pageable pageable) {
+        Page<RecurringJokeRecord> jokes = recurringJokeService.getRecurringJokes(pageable);
+        return pagedResourcesAssembler.toModel(jokes, RecurringJokeController::toModel);
+    }
+
+    /**
+     * Returns the recurring jokes for a month-day (e.g. {@code --04-01}) in the order they take turns year by year.
+     */
+    @GetMapping(params = "monthDay")
+    @SecurityRequirement(name = "basicAuth")
+    public CollectionModel<EntityModel<RecurringJokeRecord>> getRecurringJokes(@RequestParam MonthDay monthDay) {
+        List<EntityModel<RecurringJokeRecord>> jokes = recurringJokeService.getRecurringJokes(monthDay).stream()
+                .map(RecurringJokeController::toModel)
+                .toList();
+        return CollectionModel.of(jokes,
+                linkTo(methodOn(RecurringJokeController.class).getRecurringJokes(monthDay)).withSelfRel());
+    }
+
+    @PostMapping
+    @SecurityRequirement(name = "basicAuth")
+    public ResponseEntity<EntityModel<RecurringJokeRecord>> createRecurringJoke(@Valid @RequestBody RecurringJokeRecord request) {
+        EntityModel<RecurringJokeRecord> model = toModel(recurringJokeService.addRecurringJoke(request));
+        return ResponseEntity.created(model.getRequiredLink("self").toUri()).body(model);
+    }
+
+    @GetMapping("/{id}")
+    @SecurityRequirement(name = "basicAuth")
+    public EntityModel<RecurringJokeRecord> getRecurringJoke(@PathVariable UUID id) {
+        return toModel(recurringJokeService.getRecurringJoke(id));
+    }
+
+    @PutMapping("/{id}")
+    @SecurityRequirement(name = "basicAuth")
+    public EntityModel<RecurringJokeRecord> updateRecurringJoke(@PathVariable UUID id, @Valid @RequestBody RecurringJokeRecord request) {
+        return toModel(recurringJokeService.updateRecurringJoke(id, request));
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @SecurityRequirement(name = "basicAuth")
+    public void deleteRecurringJoke(@PathVariable UUID id) {
+        recurringJokeService.removeRecurringJoke(id);
+    }
+
+    @ExceptionHandler(JokeNotFoundException.class)
+    public ProblemDetail handleJokeNotFoundException(JokeNotFoundException ex) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, ex.getMessage());
+    }
+
+    private static EntityModel<RecurringJokeRecord> toModel(RecurringJokeRecord joke) {
+        return EntityModel.of(joke, linkTo(methodOn(RecurringJokeController.class).getRecurringJoke(joke.id())).withSelfRel());
+    }
+}
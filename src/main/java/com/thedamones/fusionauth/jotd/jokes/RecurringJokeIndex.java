@@ -0,0 +1,92 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Index of the recurring jokes for each of the 366 month-days of a (leap) year.  Each slot holds a small array of the
+ * jokes for that month-day in rotation order, so finding the joke for a date is an array lookup and a modulo of the
+ * year.  February 29th jokes are only told in leap years.
+ * <p>
+ * Lookups don't lock: writers replace the array of a slot with an updated copy, and are serialized with each other.
+ */
+class RecurringJokeIndex {
+
+    static final int SLOTS = 366;
+    static final int LEAP_DAY_SLOT = slot(MonthDay.of(2, 29));
+
+    private static final RecurringJokeRecord[] EMPTY = new RecurringJokeRecord[0];
+    // a fixed order which doesn't depend on when jokes were loaded, so the rotation is the same after a restart
+    private static final Comparator<RecurringJokeRecord> ROTATION_ORDER = Comparator.comparing(RecurringJokeRecord::id);
+
+    private final AtomicReferenceArray<RecurringJokeRecord[]> slots = new AtomicReferenceArray<>(SLOTS);
+    private final Map<UUID, MonthDay> monthDays = new HashMap<>();
+
+    RecurringJokeIndex() {
+        for (int i = 0; i < SLOTS; i++) {
+            slots.set(i, EMPTY);
+        }
+    }
+
+    static int slot(MonthDay monthDay) {
+        return monthDay.atYear(2000).getDayOfYear() - 1;
+    }
+
+    /**
+     * Returns the recurring joke for the date, choosing between the jokes for its month-day by the year.  February
+     * 29th only comes round in leap years, so its jokes are chosen by the number of leap years instead, which keeps
+     * every joke in its rotation.
+     */
+    Optional<RecurringJokeRecord> jokeFor(LocalDate date) {
+        int slot = slot(MonthDay.from(date));
+        RecurringJokeRecord[] jokes = slots.get(slot);
+        if (jokes.length == 0) {
+            return Optional.empty();
+        }
+        long rotation = slot == LEAP_DAY_SLOT ? leapYears(date.getYear()) : date.getYear();
+        return Optional.of(jokes[(int) Math.floorMod(rotation, (long) jokes.length)]);
+    }
+
+    // the number of leap years up to and including the year, which goes up by one from each leap year to the next
+    static long leapYears(long year) {
+        return Math.floorDiv(year, 4) - Math.floorDiv(year, 100) + Math.floorDiv(year, 400);
+    }
+
+    /**
+     * Returns the recurring jokes for the month-day in rotation order.
+     */
+    List<RecurringJokeRecord> jokesFor(MonthDay monthDay) {
+        return List.of(slots.get(slot(monthDay)));
+    }
+
+    synchronized void put(RecurringJokeRecord joke) {
+        remove(joke.id());
+        int slot = slot(joke.monthDay());
+        RecurringJokeRecord[] jokes = slots.get(slot);
+        RecurringJokeRecord[] updated = Arrays.copyOf(jokes, jokes.length + 1);
+        updated[jokes.length] = joke;
+        Arrays.sort(updated, ROTATION_ORDER);
+        slots.set(slot, updated);
+        monthDays.put(joke.id(), joke.monthDay());
+    }
+
+    synchronized void remove(UUID id) {
+        MonthDay monthDay = monthDays.remove(id);
+        if (monthDay == null) {
+            return;
+        }
+        int slot = slot(monthDay);
+        RecurringJokeRecord[] updated = Arrays.stream(slots.get(slot))
+                .filter(joke -> !joke.id().equals(id))
+                .toArray(RecurringJokeRecord[]::new);
+        slots.set(slot, updated.length == 0 ? EMPTY : updated);
+    }
+}
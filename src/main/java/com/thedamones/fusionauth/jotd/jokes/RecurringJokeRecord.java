@@ -0,0 +1,26 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.hateoas.server.core.Relation;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.UUID;
+
+/**
+ * @param monthDay the month and day the joke is told on every year, e.g. {@code --04-01}
+ */
+@Relation(collectionRelation = "recurringJokes")
+public record RecurringJokeRecord(UUID id, @NotNull MonthDay monthDay, @NotBlank String joke, String description,
+                                  @JsonIgnore Long version, @JsonIgnore Instant lastModified) {
+
+    /**
+     * Returns this joke as the joke for the given date.
+     */
+    public JokeRecord toJokeRecord(LocalDate date) {
+        return new JokeRecord(id, date, joke, description, version, lastModified, monthDay);
+    }
+}
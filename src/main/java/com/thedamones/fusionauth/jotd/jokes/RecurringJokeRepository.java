@@ -0,0 +1,8 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface RecurringJokeRepository extends JpaRepository<RecurringJoke, UUID> {
+}
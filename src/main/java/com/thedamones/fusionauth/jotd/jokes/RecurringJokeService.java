@@ -0,0 +1,164 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import com.thedamones.fusionauth.jotd.config.IsAdmin;
+import com.thedamones.fusionauth.jotd.config.IsUser;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Manages the jokes told every year on the same month-day.  Recurring jokes are looked up from an in-memory
+ * {@link RecurringJokeIndex} which is loaded once and then updated as each change is committed, so resolving the
+ * recurring joke for a date never queries the database.
+ */
+@Service
+public class RecurringJokeService {
+
+    private final RecurringJokeRepository recurringJokeRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile RecurringJokeIndex index;
+
+    public RecurringJokeService(RecurringJokeRepository recurringJokeRepository, ApplicationEventPublisher eventPublisher) {
+        this.recurringJokeRepository = recurringJokeRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        index();
+    }
+
+    /**
+     * Returns the recurring joke told on the given date, if any.
+     */
+    public Optional<JokeRecord> getJokeFor(LocalDate date) {
+        return index().jokeFor(date).map(joke -> joke.toJokeRecord(date));
+    }
+
+    @IsUser
+    @Transactional(readOnly = true)
+    public Page<RecurringJokeRecord> getRecurringJokes(Pageable pageable) {
+        return recurringJokeRepository.findAll(pageable).map(RecurringJokeService::toRecord);
+    }
+
+    /**
+     * Returns the recurring jokes for the month-day in the order they take turns, starting with the joke for years
+     * divisible by the number of jokes.
+     */
+    @IsUser
+    public List<RecurringJokeRecord> getRecurringJokes(MonthDay monthDay) {
+        return index().jokesFor(monthDay);
+    }
+
+    @IsUser
+    public RecurringJokeRecord getRecurringJoke(UUID id) {
+        return recurringJokeRepository.findById(id)
+                .map(RecurringJokeService::toRecord)
+                .orElseThrow(() -> recurringJokeNotFoundException(id));
+    }
+
+    @IsAdmin
+    @Transactional
+    public RecurringJokeRecord addRecurringJoke(RecurringJokeRecord request) {
+        RecurringJoke joke = new RecurringJoke();
+        RecurringJokeRecord saved = save(joke, request);
+        afterCommit(index -> index.put(saved), Set.of(saved.monthDay()));
+        return saved;
+    }
+
+    @IsAdmin
+    @Transactional
+    public RecurringJokeRecord updateRecurringJoke(UUID id, RecurringJokeRecord request) {
+        RecurringJoke joke = recurringJokeRepository.findById(id)
+                .orElseThrow(() -> recurringJokeNotFoundException(id));
+        MonthDay previous = joke.getMonthDay();
+        RecurringJokeRecord saved = save(joke, request);
+        afterCommit(index -> index.put(saved), Set.of(previous, saved.monthDay()));
+        return saved;
+    }
+
+    @IsAdmin
+    @Transactional
+    public void removeRecurringJoke(UUID id) {
+        RecurringJoke joke = recurringJokeRepository.findById(id)
+                .orElseThrow(() -> recurringJokeNotFoundException(id));
+        recurringJokeRepository.delete(joke);
+        afterCommit(index -> index.remove(id), Set.of(joke.getMonthDay()));
+    }
+
+    private RecurringJokeRecord save(RecurringJoke joke, RecurringJokeRecord request) {
+        joke.setMonthDay(request.monthDay());
+        joke.setJoke(request.joke());
+        joke.setDescription(request.description());
+        return toRecord(recurringJokeRepository.saveAndFlush(joke));
+    }
+
+    /**
+     * Applies the change to the index once the surrounding transaction commits and then announces it, so a reader
+     * never sees a change which might still be rolled back.
+     */
+    private void afterCommit(Consumer<RecurringJokeIndex> change, Set<MonthDay> monthDays) {
+        Runnable apply = () -> {
+            // synchronized with loading so a change committed while the index is loading is never missed; an index
+            // which hasn't started loading yet will read the change from the database
+            synchronized (this) {
+                if (index != null) {
+                    change.accept(index);
+                }
+            }
+            eventPublisher.publishEvent(new RecurringJokeChangeEvent(monthDays));
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        }
+        else {
+            apply.run();
+        }
+    }
+
+    private RecurringJokeIndex index() {
+        RecurringJokeIndex current = index;
+        if (current == null) {
+            synchronized (this) {
+                current = index;
+                if (current == null) {
+                    current = new RecurringJokeIndex();
+                    recurringJokeRepository.findAll().stream()
+                            .map(RecurringJokeService::toRecord)
+                            .forEach(current::put);
+                    index = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static RecurringJokeRecord toRecord(RecurringJoke joke) {
+        return new RecurringJokeRecord(joke.getId(), joke.getMonthDay(), joke.getJoke(), joke.getDescription(),
+                joke.getVersion(), joke.getLastModified());
+    }
+
+    private static JokeNotFoundException recurringJokeNotFoundException(UUID id) {
+        return new JokeNotFoundException("Recurring joke with ID " + id + " not found");
+    }
+}
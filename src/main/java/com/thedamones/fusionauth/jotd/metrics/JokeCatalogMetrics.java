@@ -0,0 +1,45 @@
+package com.thedamones.fusionauth.jotd.metrics;
+
+import com.thedamones.fusionauth.jotd.jokes.JokeRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Gauges describing the joke catalog: how many jokes there are, and how many days, starting today, are covered
+ * before the last scheduled joke.  Both are read from the database when the metrics are collected.
+ */
+@Component
+public class JokeCatalogMetrics implements MeterBinder {
+
+    private final JokeRepository jokeRepository;
+
+    public JokeCatalogMetrics(JokeRepository jokeRepository) {
+        this.jokeRepository = jokeRepository;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("jotd.jokes.catalog.size", jokeRepository, JokeRepository::count)
+                .description("Number of jokes in the catalog")
+                .strongReference(true)
+                .register(registry);
+        Gauge.builder("jotd.jokes.coverage", this, JokeCatalogMetrics::coverageDays)
+                .description("Days from today up to and including the last scheduled joke")
+                .baseUnit("days")
+                .strongReference(true)
+                .register(registry);
+    }
+
+    private double coverageDays() {
+        LocalDate today = LocalDate.now();
+        return jokeRepository.findLatestDate()
+                .filter(latest -> !latest.isBefore(today))
+                .map(latest -> ChronoUnit.DAYS.between(today, latest) + 1)
+                .orElse(0L);
+    }
+}
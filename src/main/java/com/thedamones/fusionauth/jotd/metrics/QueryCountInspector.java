@@ -0,0 +1,31 @@
+package com.thedamones.fusionauth.jotd.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between {@link #start()} and {@link #stop()}.
+ * Statements prepared outside of that window, e.g. by background work, aren't counted.
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    private final ThreadLocal<long[]> count = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        long[] current = count.get();
+        if (current != null) {
+            current[0]++;
+        }
+        return sql;
+    }
+
+    public void start() {
+        count.set(new long[1]);
+    }
+
+    public long stop() {
+        long[] current = count.get();
+        count.remove();
+        return current == null ? 0 : current[0];
+    }
+}
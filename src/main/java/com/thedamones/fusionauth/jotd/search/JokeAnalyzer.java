@@ -0,0 +1,71 @@
+package com.thedamones.fusionauth.jotd.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns text into the terms stored in, and looked up from, the {@link JokeSearchIndex}: the text is lower-cased,
+ * split on anything that isn't a letter or digit, stop words are dropped and the remaining words are reduced to a
+ * crude stem by stripping common English suffixes.  The same analysis is applied to jokes and queries, so e.g.
+ * "Baking" matches "baker" and "bakes" only through the shared stem "bak".
+ */
+final class JokeAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "into", "is", "it", "its",
+            "of", "on", "or", "so", "that", "the", "their", "then", "there", "these", "they", "this", "to", "was",
+            "were", "will", "with");
+
+    private JokeAnalyzer() {
+    }
+
+    static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        String lowerCase = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int index = 0; index <= lowerCase.length(); index++) {
+            boolean wordChar = index < lowerCase.length() && Character.isLetterOrDigit(lowerCase.charAt(index));
+            if (wordChar && start < 0) {
+                start = index;
+            }
+            else if (!wordChar && start >= 0) {
+                String word = lowerCase.substring(start, index);
+                if (!STOP_WORDS.contains(word)) {
+                    terms.add(stem(word));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    static String stem(String word) {
+        String stem = word;
+        if (stem.length() > 4 && stem.endsWith("ies")) {
+            stem = stem.substring(0, stem.length() - 3) + "y";
+        }
+        else if (stem.endsWith("sses") || stem.endsWith("xes") || stem.endsWith("zes") || stem.endsWith("ches") || stem.endsWith("shes")) {
+            stem = stem.substring(0, stem.length() - 2);
+        }
+        else if (stem.length() > 3 && stem.endsWith("s") && !stem.endsWith("ss")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+
+        if (stem.length() > 5 && stem.endsWith("ing")) {
+            stem = stem.substring(0, stem.length() - 3);
+        }
+        else if (stem.length() > 4 && (stem.endsWith("ed") || stem.endsWith("er") || stem.endsWith("ly"))) {
+            stem = stem.substring(0, stem.length() - 2);
+        }
+
+        if (stem.length() > 3 && stem.endsWith("e")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        return stem;
+    }
+}
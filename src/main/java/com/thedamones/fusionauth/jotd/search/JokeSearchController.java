@@ -0,0 +1,47 @@
+package com.thedamones.fusionauth.jotd.search;
+
+import com.thedamones.fusionauth.jotd.jokes.JokeModelAssembler;
+import com.thedamones.fusionauth.jotd.jokes.JokeRecord;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+@RestController
+@RequestMapping("/api/v1/jokes/search")
+public class JokeSearchController {
+
+    private final JokeSearchService jokeSearchService;
+    private final JokeModelAssembler jokeModelAssembler;
+
+    public JokeSearchController(JokeSearchService jokeSearchService, JokeModelAssembler jokeModelAssembler) {
+        this.jokeSearchService = jokeSearchService;
+        this.jokeModelAssembler = jokeModelAssembler;
+    }
+
+    /**
+     * Returns the jokes whose text or description best match the query, best match first.
+     */
+    @GetMapping
+    @SecurityRequirement(name = "basicAuth")
+    public CollectionModel<EntityModel<JokeRecord>> searchJokes(@RequestParam @NotBlank String q,
+                                                                @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        List<JokeRecord> jokes = jokeSearchService.search(q, size).stream()
+                .map(JokeSearchHit::joke)
+                .toList();
+        return jokeModelAssembler.forPage(jokes)
+                .toCollectionModel(jokes)
+                .add(linkTo(methodOn(JokeSearchController.class).searchJokes(q, size)).withSelfRel().expand());
+    }
+}
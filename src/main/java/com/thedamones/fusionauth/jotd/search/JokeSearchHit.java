@@ -0,0 +1,6 @@
+package com.thedamones.fusionauth.jotd.search;
+
+import com.thedamones.fusionauth.jotd.jokes.JokeRecord;
+
+public record JokeSearchHit(JokeRecord joke, double score) {
+}
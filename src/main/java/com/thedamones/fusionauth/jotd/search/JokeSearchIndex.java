@@ -0,0 +1,137 @@
+package com.thedamones.fusionauth.jotd.search;
+
+import com.thedamones.fusionauth.jotd.jokes.JokeRecord;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the text of jokes, ranking matches with BM25.
+ * <p>
+ * Each joke is a document whose terms come from its joke text and, at a lower weight, its description.  The index
+ * maps every term to the documents containing it along with the term's (weighted) frequency in each document, so a
+ * query only touches the postings of its own terms.  Reads and writes are guarded by a read/write lock so searches
+ * run concurrently with each other and only wait on the (rare) writes.
+ */
+class JokeSearchIndex {
+
+    static final float K1 = 1.2f;
+    static final float B = 0.75f;
+    static final float DESCRIPTION_WEIGHT = 0.5f;
+
+    private final Map<UUID, Document> documents = new HashMap<>();
+    private final Map<String, Map<UUID, Float>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private double totalLength;
+
+    /**
+     * Adds the joke to the index, replacing it if it is already indexed.
+     */
+    void put(JokeRecord joke) {
+        Map<String, Float> frequencies = new HashMap<>();
+        JokeAnalyzer.analyze(joke.joke()).forEach(term -> frequencies.merge(term, 1f, Float::sum));
+        JokeAnalyzer.analyze(joke.description()).forEach(term -> frequencies.merge(term, DESCRIPTION_WEIGHT, Float::sum));
+        float length = (float) frequencies.values().stream().mapToDouble(Float::doubleValue).sum();
+        Document document = new Document(joke, frequencies, length);
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(joke.id());
+            documents.put(joke.id(), document);
+            totalLength += length;
+            frequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(joke.id(), frequency));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} jokes matching any of the terms of the query, best match first.
+     */
+    List<JokeSearchHit> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(JokeAnalyzer.analyze(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Map<UUID, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            double averageLength = documentCount == 0 ? 0 : totalLength / documentCount;
+            for (String term : terms) {
+                Map<UUID, Float> termPostings = postings.get(term);
+                if (termPostings == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - termPostings.size() + 0.5) / (termPostings.size() + 0.5));
+                termPostings.forEach((id, frequency) -> {
+                    double normalizedLength = averageLength == 0 ? 1 : documents.get(id).length() / averageLength;
+                    double score = idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * normalizedLength));
+                    scores.merge(id, score, Double::sum);
+                });
+            }
+
+            // keep the best matches in a min-heap so only limit hits are ever sorted
+            Comparator<JokeSearchHit> ranking = Comparator.comparingDouble(JokeSearchHit::score)
+                    .thenComparing(hit -> hit.joke().date(), Comparator.reverseOrder());
+            PriorityQueue<JokeSearchHit> best = new PriorityQueue<>(limit + 1, ranking);
+            scores.forEach((id, score) -> {
+                best.add(new JokeSearchHit(documents.get(id).joke(), score));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            });
+            List<JokeSearchHit> hits = new ArrayList<>(best);
+            hits.sort(ranking.reversed());
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeDocument(UUID id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        totalLength -= document.length();
+        document.frequencies().keySet().forEach(term -> {
+            Map<UUID, Float> termPostings = postings.get(term);
+            termPostings.remove(id);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+            }
+        });
+    }
+
+    private record Document(JokeRecord joke, Map<String, Float> frequencies, float length) {
+    }
+}
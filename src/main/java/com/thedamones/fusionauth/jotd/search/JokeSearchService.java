@@ -0,0 +1,74 @@
+package com.thedamones.fusionauth.jotd.search;
+
+import com.thedamones.fusionauth.jotd.config.IsUser;
+import com.thedamones.fusionauth.jotd.jokes.JokeChangeEvent;
+import com.thedamones.fusionauth.jotd.jokes.JokeRecord;
+import com.thedamones.fusionauth.jotd.jokes.JokeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Full-text search over jokes, served entirely from an in-memory {@link JokeSearchIndex}.  The index is built from
+ * the repository once the application has started and is then kept up to date from the {@link JokeChangeEvent}s
+ * published by {@code JokeService}, so searches never query the database.
+ */
+@Service
+public class JokeSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(JokeSearchService.class);
+
+    private final JokeRepository jokeRepository;
+
+    private volatile JokeSearchIndex index = new JokeSearchIndex();
+    // changes committed while the index is being built, replayed onto it once it is complete
+    private List<JokeChangeEvent> pendingChanges;
+
+    public JokeSearchService(JokeRepository jokeRepository) {
+        this.jokeRepository = jokeRepository;
+    }
+
+    @IsUser
+    public List<JokeSearchHit> search(String query, int limit) {
+        return index.search(query, limit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void buildIndex() {
+        synchronized (this) {
+            pendingChanges = new ArrayList<>();
+        }
+        JokeSearchIndex built = new JokeSearchIndex();
+        try (Stream<JokeRecord> jokes = jokeRepository.streamJokeRecords(null, null)) {
+            jokes.forEach(built::put);
+        }
+        synchronized (this) {
+            pendingChanges.forEach(change -> apply(built, change));
+            pendingChanges = null;
+            index = built;
+        }
+        logger.info("Built search index of {} jokes", built.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onJokeChange(JokeChangeEvent change) {
+        if (pendingChanges != null) {
+            pendingChanges.add(change);
+        }
+        apply(index, change);
+    }
+
+    private static void apply(JokeSearchIndex index, JokeChangeEvent change) {
+        change.removed().forEach(index::remove);
+        change.saved().forEach(index::put);
+    }
+}
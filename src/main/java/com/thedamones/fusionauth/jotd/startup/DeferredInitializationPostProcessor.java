@@ -0,0 +1,56 @@
+package com.thedamones.fusionauth.jotd.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.type.MethodMetadata;
+
+import java.util.List;
+
+/**
+ * Marks the beans declared in the given packages as lazy, so they are created when first used rather than at startup.
+ * A bean belongs to the package of its class or, for a {@code @Bean} method, of the class declaring the method.
+ * <p>
+ * Deferring a bean only helps if nothing created at startup depends on it, so this is meant for self-contained
+ * features which aren't needed to serve the first requests, such as the OpenAPI docs.
+ */
+class DeferredInitializationPostProcessor implements BeanFactoryPostProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeferredInitializationPostProcessor.class);
+
+    private final List<String> packages;
+
+    DeferredInitializationPostProcessor(List<String> packages) {
+        this.packages = packages.stream()
+                .map(name -> name.endsWith(".") ? name : name + ".")
+                .toList();
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        int deferred = 0;
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(name);
+            String declaringClass = declaringClass(definition);
+            if (definition.isSingleton() && !definition.isLazyInit() && declaringClass != null
+                    && packages.stream().anyMatch(declaringClass::startsWith)) {
+                definition.setLazyInit(true);
+                deferred++;
+            }
+        }
+        logger.info("Deferred initialization of {} beans in {}", deferred, packages);
+    }
+
+    private static String declaringClass(BeanDefinition definition) {
+        if (definition instanceof AnnotatedBeanDefinition annotated) {
+            MethodMetadata factoryMethod = annotated.getFactoryMethodMetadata();
+            if (factoryMethod != null) {
+                return factoryMethod.getDeclaringClassName();
+            }
+        }
+        return definition.getBeanClassName();
+    }
+}
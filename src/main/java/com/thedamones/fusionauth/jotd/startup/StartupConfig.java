@@ -0,0 +1,35 @@
+package com.thedamones.fusionauth.jotd.startup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
+
+@Configuration
+public class StartupConfig {
+
+    /**
+     * Defers the initialization of the beans in the packages listed in {@code jotd.startup.deferred-packages}.  It is
+     * static since it post-processes the bean factory before this configuration is created.
+     */
+    @Bean
+    public static BeanFactoryPostProcessor deferredInitializationPostProcessor(Environment environment) {
+        List<String> packages = Binder.get(environment)
+                .bind("jotd.startup.deferred-packages", Bindable.listOf(String.class))
+                .orElse(List.of());
+        return new DeferredInitializationPostProcessor(packages);
+    }
+
+    @Bean
+    public StartupReportEndpoint startupReportEndpoint(ConfigurableApplicationContext context, MeterRegistry meterRegistry,
+                                                       @Value("${jotd.startup.report.slowest-beans:10}") int slowestBeanCount) {
+        return new StartupReportEndpoint(context.getApplicationStartup(), meterRegistry, slowestBeanCount);
+    }
+}
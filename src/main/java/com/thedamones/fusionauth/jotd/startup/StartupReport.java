@@ -0,0 +1,93 @@
+package com.thedamones.fusionauth.jotd.startup;
+
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.core.metrics.StartupStep;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.StreamSupport;
+
+/**
+ * Breakdown of where the time went while the application started.  The phases are consecutive, so their durations
+ * add up to the total time from the JVM starting to the application accepting traffic.
+ *
+ * @param totalMillis the time from the JVM starting to the application accepting traffic
+ * @param phases the phases of startup in order
+ * @param slowestBeans the beans which took longest to create, including the beans they depend on
+ */
+public record StartupReport(long totalMillis, List<Phase> phases, List<Step> slowestBeans) {
+
+    static final String BEAN_INSTANTIATION_STEP = "spring.beans.instantiate";
+
+    // the steps ending each phase after the JVM has started; the last phase, which includes the listeners for the
+    // application being ready, ends when it accepts traffic
+    private static final Map<String, String> PHASE_ENDS = new LinkedHashMap<>();
+
+    static {
+        PHASE_ENDS.put("spring.boot.application.starting", "starting");
+        PHASE_ENDS.put("spring.boot.application.environment-prepared", "environment");
+        PHASE_ENDS.put("spring.boot.application.context-prepared", "context-prepared");
+        PHASE_ENDS.put("spring.boot.application.context-loaded", "context-loaded");
+        PHASE_ENDS.put("spring.context.refresh", "context-refresh");
+        PHASE_ENDS.put("spring.boot.application.started", "started");
+    }
+
+    public record Phase(String name, long durationMillis) {
+    }
+
+    public record Step(String name, long durationMillis) {
+    }
+
+    /**
+     * Builds the report from the startup timeline, which only needs to contain the steps named in
+     * {@link #isReported(StartupStep)}, or just from the JVM start time if no timeline was recorded.
+     */
+    static StartupReport of(Instant jvmStart, StartupTimeline timeline, Instant ready, int slowestBeanCount) {
+        if (timeline == null) {
+            long total = Duration.between(jvmStart, ready).toMillis();
+            return new StartupReport(total, List.of(new Phase("startup", total)), List.of());
+        }
+        List<Phase> phases = new ArrayList<>();
+        phases.add(new Phase("jvm", Duration.between(jvmStart, timeline.getStartTime()).toMillis()));
+        Instant phaseStart = timeline.getStartTime();
+        for (Map.Entry<String, String> phaseEnd : PHASE_ENDS.entrySet()) {
+            Instant end = timeline.getEvents().stream()
+                    .filter(event -> event.getStartupStep().getName().equals(phaseEnd.getKey()))
+                    .map(StartupTimeline.TimelineEvent::getEndTime)
+                    .findFirst()
+                    .orElse(null);
+            if (end != null) {
+                phases.add(new Phase(phaseEnd.getValue(), Duration.between(phaseStart, end).toMillis()));
+                phaseStart = end;
+            }
+        }
+        phases.add(new Phase("ready", Duration.between(phaseStart, ready).toMillis()));
+        List<Step> slowestBeans = timeline.getEvents().stream()
+                .filter(event -> event.getStartupStep().getName().equals(BEAN_INSTANTIATION_STEP))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(slowestBeanCount)
+                .map(event -> new Step(beanName(event.getStartupStep()), event.getDuration().toMillis()))
+                .toList();
+        return new StartupReport(Duration.between(jvmStart, ready).toMillis(), phases, slowestBeans);
+    }
+
+    /**
+     * Returns {@code true} for the steps the report is built from, so only they need to be recorded.
+     */
+    static boolean isReported(StartupStep step) {
+        return PHASE_ENDS.containsKey(step.getName()) || step.getName().equals(BEAN_INSTANTIATION_STEP);
+    }
+
+    private static String beanName(StartupStep step) {
+        return StreamSupport.stream(step.getTags().spliterator(), false)
+                .filter(tag -> tag.getKey().equals("beanName"))
+                .map(StartupStep.Tag::getValue)
+                .findFirst()
+                .orElse("(unnamed)");
+    }
+}
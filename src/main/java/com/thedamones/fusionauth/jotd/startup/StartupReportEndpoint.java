@@ -0,0 +1,79 @@
+package com.thedamones.fusionauth.jotd.startup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Actuator endpoint ({@code /actuator/startupreport}) reporting how long each phase of startup took and which beans
+ * were slowest to create.  The report is built once the application is accepting traffic, which is after the
+ * listeners for the application being ready have run, and each phase is also published as a {@value #PHASE_GAUGE}
+ * gauge.
+ * <p>
+ * The phases are only broken down when the application was started with the {@link ApplicationStartup} from
+ * {@link #applicationStartup()}; otherwise only the total is reported.
+ */
+@Endpoint(id = "startupreport")
+public class StartupReportEndpoint {
+
+    static final String PHASE_GAUGE = "jotd.startup.phase";
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupReportEndpoint.class);
+
+    private final ApplicationStartup applicationStartup;
+    private final MeterRegistry meterRegistry;
+    private final int slowestBeanCount;
+
+    private volatile StartupReport report;
+
+    StartupReportEndpoint(ApplicationStartup applicationStartup, MeterRegistry meterRegistry, int slowestBeanCount) {
+        this.applicationStartup = applicationStartup;
+        this.meterRegistry = meterRegistry;
+        this.slowestBeanCount = slowestBeanCount;
+    }
+
+    /**
+     * Returns an {@link ApplicationStartup} which records just the steps the report needs.
+     */
+    public static ApplicationStartup applicationStartup() {
+        BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(10_000);
+        applicationStartup.addFilter(StartupReport::isReported);
+        return applicationStartup;
+    }
+
+    @ReadOperation
+    public StartupReport startupReport() {
+        return report;
+    }
+
+    @EventListener
+    public void onReadinessChange(AvailabilityChangeEvent<ReadinessState> event) {
+        if (event.getState() != ReadinessState.ACCEPTING_TRAFFIC || report != null) {
+            return;
+        }
+        Instant jvmStart = Instant.ofEpochMilli(ManagementFactory.getRuntimeMXBean().getStartTime());
+        StartupReport built = StartupReport.of(jvmStart,
+                applicationStartup instanceof BufferingApplicationStartup buffering ? buffering.getBufferedTimeline() : null,
+                Instant.now(), slowestBeanCount);
+        for (StartupReport.Phase phase : built.phases()) {
+            TimeGauge.builder(PHASE_GAUGE, phase, TimeUnit.MILLISECONDS, StartupReport.Phase::durationMillis)
+                    .tag("phase", phase.name())
+                    .description("Time taken by a phase of application startup")
+                    .register(meterRegistry);
+        }
+        report = built;
+        logger.info("Started in {}ms: {}", built.totalMillis(), built.phases());
+    }
+}
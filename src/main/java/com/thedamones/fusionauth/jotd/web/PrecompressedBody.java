@@ -0,0 +1,113 @@
+package com.thedamones.fusionauth.jotd.web;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A response body which is encoded, and compressed with gzip, once so it can be written as it is to every client.
+ * The uncompressed and gzipped bodies are different representations, so they need different ETags; see
+ * {@link #eTag(String, boolean)}.
+ */
+public final class PrecompressedBody {
+
+    private static final String GZIP = "gzip";
+
+    private final byte[] identity;
+    private final byte[] gzip;
+
+    private PrecompressedBody(byte[] identity, byte[] gzip) {
+        this.identity = identity;
+        this.gzip = gzip;
+    }
+
+    public static PrecompressedBody of(byte[] identity) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(identity.length / 2 + 32);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(identity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new PrecompressedBody(identity, compressed.toByteArray());
+    }
+
+    /**
+     * Returns the body, gzipped or not.  The array is shared, so it must not be modified.
+     */
+    public byte[] get(boolean gzipped) {
+        return gzipped ? gzip : identity;
+    }
+
+    /**
+     * Completes the response with the body, gzipped or not, along with its {@code Content-Encoding} and
+     * {@code Content-Length}.  {@code Vary: Accept-Encoding} should be set by the caller so it's also sent with a
+     * {@code 304 Not Modified}.
+     */
+    public ResponseEntity<byte[]> toResponse(ResponseEntity.BodyBuilder response, boolean gzipped) {
+        byte[] body = get(gzipped);
+        if (gzipped) {
+            response.header(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        return response.contentLength(body.length).body(body);
+    }
+
+    /**
+     * Returns the ETag of the gzipped representation of the body with the given strong ETag, or the ETag itself for
+     * the uncompressed body.
+     */
+    public static String eTag(String eTag, boolean gzipped) {
+        return gzipped ? eTag.substring(0, eTag.length() - 1) + ".gz\"" : eTag;
+    }
+
+    /**
+     * Returns {@code true} if the {@code Accept-Encoding} header allows a gzipped response.  The header is scanned in
+     * place, since it's checked on every request.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        int start = 0;
+        while (start < acceptEncoding.length()) {
+            int end = acceptEncoding.indexOf(',', start);
+            end = end < 0 ? acceptEncoding.length() : end;
+            int parameters = acceptEncoding.indexOf(';', start);
+            int codingEnd = parameters >= 0 && parameters < end ? parameters : end;
+            if (regionEquals(acceptEncoding, start, codingEnd, GZIP)) {
+                return codingEnd == end || !isZeroQuality(acceptEncoding, codingEnd + 1, end);
+            }
+            start = end + 1;
+        }
+        return false;
+    }
+
+    private static boolean regionEquals(String value, int start, int end, String expected) {
+        while (start < end && Character.isWhitespace(value.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(value.charAt(end - 1))) {
+            end--;
+        }
+        return end - start == expected.length() && value.regionMatches(true, start, expected, 0, expected.length());
+    }
+
+    private static boolean isZeroQuality(String value, int start, int end) {
+        while (start < end && Character.isWhitespace(value.charAt(start))) {
+            start++;
+        }
+        if (!value.startsWith("q=0", start)) {
+            return false;
+        }
+        for (int i = start + 3; i < end; i++) {
+            char c = value.charAt(i);
+            if (c != '0' && c != '.' && !Character.isWhitespace(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,23 @@
+-- The schema for the entities in com.thedamones.fusionauth.jotd.jokes, used instead of Hibernate's schema update by the
+-- fast-start profile.  SchemaValidationTest checks it against the entities, so update both together.
+
+create table if not exists joke (
+    date date unique,
+    last_modified timestamp(6) with time zone,
+    version bigint default 0,
+    id uuid not null,
+    description varchar(255),
+    joke varchar(255),
+    primary key (id)
+);
+
+create table if not exists recurring_joke (
+    day_of_month integer not null,
+    month_of_year integer not null,
+    last_modified timestamp(6) with time zone,
+    version bigint default 0,
+    id uuid not null,
+    description varchar(255),
+    joke varchar(255),
+    primary key (id)
+);
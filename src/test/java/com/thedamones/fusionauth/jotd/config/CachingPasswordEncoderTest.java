@@ -0,0 +1,79 @@
+package com.thedamones.fusionauth.jotd.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CachingPasswordEncoderTest {
+
+    @SuppressWarnings("deprecation")
+    private final PasswordEncoder delegate = spy(NoOpPasswordEncoder.getInstance());
+
+    @Test
+    void matches_cachesSuccessfulMatches() {
+        CachingPasswordEncoder encoder = new CachingPasswordEncoder(delegate, 10, Duration.ofMinutes(5));
+
+        assertTrue(encoder.matches("secret", "secret"));
+        assertTrue(encoder.matches("secret", "secret"));
+
+        verify(delegate, times(1)).matches("secret", "secret");
+    }
+
+    @Test
+    void matches_neverCachesFailedMatches() {
+        CachingPasswordEncoder encoder = new CachingPasswordEncoder(delegate, 10, Duration.ofMinutes(5));
+
+        assertFalse(encoder.matches("wrong", "secret"));
+        assertFalse(encoder.matches("wrong", "secret"));
+
+        verify(delegate, times(2)).matches("wrong", "secret");
+    }
+
+    @Test
+    void matches_whenStoredPasswordChanges() {
+        CachingPasswordEncoder encoder = new CachingPasswordEncoder(delegate, 10, Duration.ofMinutes(5));
+
+        assertTrue(encoder.matches("secret", "secret"));
+        assertFalse(encoder.matches("secret", "changed"));
+    }
+
+    @Test
+    void matches_afterTtlExpires() {
+        CachingPasswordEncoder encoder = new CachingPasswordEncoder(delegate, 10, Duration.ZERO);
+
+        assertTrue(encoder.matches("secret", "secret"));
+        assertTrue(encoder.matches("secret", "secret"));
+
+        verify(delegate, times(2)).matches("secret", "secret");
+    }
+
+    @Test
+    void matches_evictsLeastRecentlyUsed() {
+        CachingPasswordEncoder encoder = new CachingPasswordEncoder(delegate, 1, Duration.ofMinutes(5));
+
+        encoder.matches("first", "first");
+        encoder.matches("second", "second");
+        encoder.matches("first", "first");
+
+        verify(delegate, times(2)).matches("first", "first");
+    }
+
+    @Test
+    void invalidateAll_forgetsMatches() {
+        CachingPasswordEncoder encoder = new CachingPasswordEncoder(delegate, 10, Duration.ofMinutes(5));
+
+        encoder.matches("secret", "secret");
+        encoder.invalidateAll();
+        encoder.matches("secret", "secret");
+
+        verify(delegate, times(2)).matches("secret", "secret");
+    }
+}
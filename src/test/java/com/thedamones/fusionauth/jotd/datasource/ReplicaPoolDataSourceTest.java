@@ -0,0 +1,84 @@
+package com.thedamones.fusionauth.jotd.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReplicaPoolDataSourceTest {
+
+    private final DataSource first = mock(DataSource.class);
+    private final DataSource second = mock(DataSource.class);
+    private final DataSource primary = mock(DataSource.class);
+    private final Connection firstConnection = mock(Connection.class);
+    private final Connection secondConnection = mock(Connection.class);
+    private final Connection primaryConnection = mock(Connection.class);
+
+    @Test
+    void getConnection_roundRobinsReplicas() throws SQLException {
+        when(first.getConnection()).thenReturn(firstConnection);
+        when(second.getConnection()).thenReturn(secondConnection);
+        ReplicaPoolDataSource dataSource = new ReplicaPoolDataSource(List.of(first, second), primary, Duration.ofSeconds(30));
+
+        assertSame(firstConnection, dataSource.getConnection());
+        assertSame(secondConnection, dataSource.getConnection());
+        assertSame(firstConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void getConnection_ejectsFailingReplica() throws SQLException {
+        when(first.getConnection()).thenThrow(new SQLException("down"));
+        when(second.getConnection()).thenReturn(secondConnection);
+        ReplicaPoolDataSource dataSource = new ReplicaPoolDataSource(List.of(first, second), primary, Duration.ofSeconds(30));
+
+        assertSame(secondConnection, dataSource.getConnection());
+        assertSame(secondConnection, dataSource.getConnection());
+        assertSame(secondConnection, dataSource.getConnection());
+
+        verify(first, times(1)).getConnection();
+        assertEquals(1, dataSource.getAvailableReplicas());
+    }
+
+    @Test
+    void getConnection_retriesEjectedReplicaAfterEjectionTime() throws SQLException {
+        when(first.getConnection()).thenThrow(new SQLException("down")).thenReturn(firstConnection);
+        when(second.getConnection()).thenReturn(secondConnection);
+        ReplicaPoolDataSource dataSource = new ReplicaPoolDataSource(List.of(first, second), primary, Duration.ZERO);
+
+        assertSame(secondConnection, dataSource.getConnection());
+        assertSame(secondConnection, dataSource.getConnection());
+        assertSame(firstConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void getConnection_fallsBackToPrimaryWhenNoReplicaIsAvailable() throws SQLException {
+        when(first.getConnection()).thenThrow(new SQLException("down"));
+        when(second.getConnection()).thenThrow(new SQLException("down"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        ReplicaPoolDataSource dataSource = new ReplicaPoolDataSource(List.of(first, second), primary, Duration.ofSeconds(30));
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertEquals(0, dataSource.getAvailableReplicas());
+    }
+
+    @Test
+    void getConnection_withCredentials_notSupported() {
+        ReplicaPoolDataSource dataSource = new ReplicaPoolDataSource(List.of(first, second), primary, Duration.ofSeconds(30));
+
+        assertThrows(SQLFeatureNotSupportedException.class, () -> dataSource.getConnection("user", "password"));
+        assertEquals(2, dataSource.getAvailableReplicas());
+    }
+}
@@ -0,0 +1,94 @@
+package com.thedamones.fusionauth.jotd.datasource;
+
+import com.thedamones.fusionauth.jotd.jokes.CreateJokeRecord;
+import com.thedamones.fusionauth.jotd.jokes.JokeDateMatch;
+import com.thedamones.fusionauth.jotd.jokes.JokeRepository;
+import com.thedamones.fusionauth.jotd.jokes.JokeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Checks that the reads which aren't made in a service transaction, i.e. loading the joke of the day and the
+ * repository fallbacks of the date lookups, are still routed to a replica.  The replica is the primary database, so
+ * the routing can be checked without replication.  The updates and deletes of the repository must still go to the
+ * primary when they aren't made in a service transaction either.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica-routing;DB_CLOSE_DELAY=-1",
+        "jotd.datasource.replicas[0].url=jdbc:h2:mem:replica-routing;DB_CLOSE_DELAY=-1"
+})
+@WithMockUser(roles = {"USER", "ADMIN"})
+class ReplicaRoutingTest {
+
+    private static final LocalDate TODAY = LocalDate.now(ZoneId.systemDefault());
+
+    @Autowired
+    private JokeService jokeService;
+
+    @Autowired
+    private JokeRepository jokeRepository;
+
+    @MockitoSpyBean
+    private ReplicaPoolDataSource replicaDataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        if (jokeService.findJoke(TODAY, JokeDateMatch.EXACT).isEmpty()) {
+            jokeService.addJoke(new CreateJokeRecord(TODAY, "Today's joke", null));
+        }
+        JokeService target = AopTestUtils.getTargetObject(jokeService);
+        // forget the joke of the day and the date index, so both are read from the repository
+        ((Map<?, ?>) ReflectionTestUtils.getField(target, "jokesOfTheDay")).clear();
+        ((Map<?, ?>) ReflectionTestUtils.getField(target, "staleJokesOfTheDay")).clear();
+        ReflectionTestUtils.setField(target, "dateIndex", null);
+        clearInvocations(replicaDataSource);
+    }
+
+    @Test
+    void getJokeOfTheDay_readFromReplica() throws Exception {
+        assertEquals("Today's joke", jokeService.getJokeOfTheDaySnapshot().joke().joke());
+
+        verify(replicaDataSource, atLeastOnce()).getConnection();
+    }
+
+    @Test
+    void findJoke_readFromReplica() throws Exception {
+        assertEquals(TODAY, jokeService.findJoke(TODAY, JokeDateMatch.EXACT).orElseThrow().date());
+        verify(replicaDataSource, atLeastOnce()).getConnection();
+
+        clearInvocations(replicaDataSource);
+        assertEquals(TODAY, jokeService.findJoke(TODAY.plusDays(3), JokeDateMatch.NEAREST).orElseThrow().date());
+        verify(replicaDataSource, atLeastOnce()).getConnection();
+    }
+
+    @Test
+    void getJokesBetween_readFromReplica() throws Exception {
+        assertEquals(1, jokeService.getJokesBetween(TODAY, TODAY, 10).jokes().size());
+
+        verify(replicaDataSource, atLeastOnce()).getConnection();
+    }
+
+    @Test
+    void deleteJoke_writtenToPrimary() throws Exception {
+        assertEquals(0, jokeRepository.deleteJoke(UUID.randomUUID()));
+
+        verify(replicaDataSource, never()).getConnection();
+    }
+}
@@ -0,0 +1,82 @@
+package com.thedamones.fusionauth.jotd.demo;
+
+import com.thedamones.fusionauth.jotd.jokes.CreateJokeRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvParserServiceTest {
+
+    private final CsvParserService csvParserService = new CsvParserService();
+
+    @Test
+    void streamRecords_reportsLineEachRowStartsOn() {
+        RecordingHandler handler = stream("""
+                date,joke,description
+                2025-01-01,First,one
+
+                2025-01-02,"Second
+                over two lines",two
+                not-a-date,Third,three
+                2025-01-04,Fourth,four
+                """);
+
+        assertEquals(List.of(2L, 4L, 7L), handler.acceptedLines);
+        assertEquals(List.of(new CreateJokeRecord(LocalDate.of(2025, 1, 1), "First", "one"),
+                new CreateJokeRecord(LocalDate.of(2025, 1, 2), "Second\nover two lines", "two"),
+                new CreateJokeRecord(LocalDate.of(2025, 1, 4), "Fourth", "four")), handler.accepted);
+        assertEquals(List.of(6L), handler.rejectedLines);
+    }
+
+    @Test
+    void streamRecords_rejectsRowWithWrongNumberOfFields() {
+        RecordingHandler handler = stream("""
+                date,joke,description
+                2025-01-01,First
+                2025-01-02,Second,two
+                """);
+
+        assertEquals(List.of(2L), handler.rejectedLines);
+        assertEquals(List.of(3L), handler.acceptedLines);
+    }
+
+    @Test
+    void streamRecords_emptyFile() {
+        MockMultipartFile file = new MockMultipartFile("file", "jokes.csv", "text/csv", new byte[0]);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> csvParserService.streamRecords(file, CreateJokeRecord.class, new RecordingHandler()));
+    }
+
+    private RecordingHandler stream(String csv) {
+        MockMultipartFile file = new MockMultipartFile("file", "jokes.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+        RecordingHandler handler = new RecordingHandler();
+        csvParserService.streamRecords(file, CreateJokeRecord.class, handler);
+        return handler;
+    }
+
+    private static class RecordingHandler implements CsvParserService.CsvRowHandler<CreateJokeRecord> {
+
+        private final List<CreateJokeRecord> accepted = new ArrayList<>();
+        private final List<Long> acceptedLines = new ArrayList<>();
+        private final List<Long> rejectedLines = new ArrayList<>();
+
+        @Override
+        public void accept(long line, CreateJokeRecord record) {
+            accepted.add(record);
+            acceptedLines.add(line);
+        }
+
+        @Override
+        public void reject(long line, String message) {
+            assertFalse(message.isBlank());
+            rejectedLines.add(line);
+        }
+    }
+}
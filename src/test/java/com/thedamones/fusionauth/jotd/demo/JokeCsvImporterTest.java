@@ -0,0 +1,144 @@
+package com.thedamones.fusionauth.jotd.demo;
+
+import com.thedamones.fusionauth.jotd.jokes.CreateJokeRecord;
+import com.thedamones.fusionauth.jotd.jokes.JokeDataIntegrityException;
+import com.thedamones.fusionauth.jotd.jokes.JokeRecord;
+import com.thedamones.fusionauth.jotd.jokes.JokeService;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JokeCsvImporterTest {
+
+    private static ValidatorFactory validatorFactory;
+    private static Validator validator;
+
+    @Mock
+    private JokeService jokeService;
+
+    @BeforeAll
+    static void setUpValidator() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    static void closeValidator() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void importJokes_savesInChunks() {
+        List<Integer> chunkSizes = new ArrayList<>();
+        when(jokeService.addJokes(anyList())).thenAnswer(invocation -> {
+            List<CreateJokeRecord> chunk = invocation.getArgument(0);
+            chunkSizes.add(chunk.size());
+            return chunk.stream().map(JokeCsvImporterTest::saved).toList();
+        });
+
+        CsvImportReport report = importer(2, 10).importJokes(csv("""
+                date,joke,description
+                2025-01-01,One,
+                2025-01-02,Two,
+                2025-01-03,Three,
+                2025-01-04,Four,
+                2025-01-05,Five,
+                """));
+
+        assertEquals(List.of(2, 2, 1), chunkSizes);
+        assertEquals(new CsvImportReport(5, 0, List.of()), report);
+    }
+
+    @Test
+    void importJokes_reportsRejectedRowsByLine() {
+        when(jokeService.addJokes(anyList())).thenAnswer(invocation -> {
+            List<CreateJokeRecord> chunk = invocation.getArgument(0);
+            return chunk.stream().map(JokeCsvImporterTest::saved).toList();
+        });
+
+        CsvImportReport report = importer(10, 10).importJokes(csv("""
+                date,joke,description
+                2025-01-01,One,
+
+                2025-01-02,"Two
+                lines",
+                not-a-date,Three,
+                2025-01-04, ,
+                2025-01-05,Five,
+                """));
+
+        assertEquals(3, report.imported());
+        assertEquals(2, report.rejected());
+        assertEquals(List.of(6L, 7L), report.errors().stream().map(CsvImportReport.RowError::line).toList());
+        assertEquals("joke must not be blank", report.errors().get(1).message());
+    }
+
+    @Test
+    void importJokes_whenChunkFails_savesRowByRowAndReportsLine() {
+        when(jokeService.addJokes(anyList())).thenThrow(new JokeDataIntegrityException("duplicate"));
+        when(jokeService.addJoke(any(CreateJokeRecord.class))).thenAnswer(invocation -> {
+            CreateJokeRecord request = invocation.getArgument(0);
+            if (request.date().equals(LocalDate.of(2025, 1, 2))) {
+                throw new JokeDataIntegrityException("duplicate");
+            }
+            return saved(request);
+        });
+
+        CsvImportReport report = importer(10, 10).importJokes(csv("""
+                date,joke,description
+                2025-01-01,One,
+                2025-01-02,Two,
+                2025-01-03,Three,
+                """));
+
+        assertEquals(2, report.imported());
+        assertEquals(List.of(new CsvImportReport.RowError(3, "A joke for date '2025-01-02' already exists")), report.errors());
+        verify(jokeService, times(3)).addJoke(any(CreateJokeRecord.class));
+    }
+
+    @Test
+    void importJokes_limitsReportedErrors() {
+        CsvImportReport report = importer(10, 2).importJokes(csv("""
+                date,joke,description
+                one,One,
+                two,Two,
+                three,Three,
+                """));
+
+        assertEquals(0, report.imported());
+        assertEquals(3, report.rejected());
+        assertEquals(List.of(2L, 3L), report.errors().stream().map(CsvImportReport.RowError::line).toList());
+        verifyNoInteractions(jokeService);
+    }
+
+    private JokeCsvImporter importer(int chunkSize, int maxReportedErrors) {
+        return new JokeCsvImporter(new CsvParserService(), jokeService, validator, chunkSize, maxReportedErrors);
+    }
+
+    private static MockMultipartFile csv(String content) {
+        return new MockMultipartFile("file", "jokes.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static JokeRecord saved(CreateJokeRecord request) {
+        return new JokeRecord(UUID.randomUUID(), request.date(), request.joke(), request.description());
+    }
+}
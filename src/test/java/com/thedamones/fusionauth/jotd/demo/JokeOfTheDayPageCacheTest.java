@@ -0,0 +1,107 @@
+package com.thedamones.fusionauth.jotd.demo;
+
+import com.thedamones.fusionauth.jotd.jokes.JokeChangeEvent;
+import com.thedamones.fusionauth.jotd.jokes.JokeDateMatch;
+import com.thedamones.fusionauth.jotd.jokes.JokeOfTheDay;
+import com.thedamones.fusionauth.jotd.jokes.JokeRecord;
+import com.thedamones.fusionauth.jotd.jokes.JokeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.IContext;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JokeOfTheDayPageCacheTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 4, 1);
+
+    private final JokeRecord joke = new JokeRecord(UUID.randomUUID(), DATE, "joke", "description", 1L, Instant.now());
+
+    @Mock
+    private JokeService jokeService;
+
+    @Mock
+    private ITemplateEngine templateEngine;
+
+    private JokeOfTheDayPageCache pageCache;
+
+    @BeforeEach
+    void setUp() {
+        pageCache = new JokeOfTheDayPageCache(jokeService, templateEngine, 2);
+        lenient().when(templateEngine.process(eq(JokeOfTheDayPageCache.TEMPLATE), any(IContext.class)))
+                .thenAnswer(invocation -> "<p>" + invocation.getArgument(1, IContext.class).getVariable("date") + "</p>");
+    }
+
+    @Test
+    void getPage_today_renderedOncePerJokeOfTheDay() {
+        JokeOfTheDay jokeOfTheDay = new JokeOfTheDay(DATE, joke, null);
+
+        JokeOfTheDayPage page = pageCache.getPage(jokeOfTheDay);
+
+        assertSame(page, pageCache.getPage(jokeOfTheDay));
+        assertEquals("<p>2025-04-01</p>", new String(page.body().get(false), StandardCharsets.UTF_8));
+        assertNotEquals(page.eTag(false), page.eTag(true));
+        verify(templateEngine, times(1)).process(eq(JokeOfTheDayPageCache.TEMPLATE), any(IContext.class));
+
+        // replaced by the service at rollover or when changed
+        assertNotSame(page, pageCache.getPage(new JokeOfTheDay(DATE.plusDays(1), null, null)));
+    }
+
+    @Test
+    void getPage_date_cachedUntilChanged() {
+        when(jokeService.findJoke(DATE, JokeDateMatch.EXACT)).thenReturn(Optional.of(joke));
+
+        JokeOfTheDayPage page = pageCache.getPage(DATE);
+        assertSame(page, pageCache.getPage(DATE));
+
+        pageCache.onJokeChange(JokeChangeEvent.saved(new JokeRecord(UUID.randomUUID(), DATE.plusDays(1), "other", null)));
+        assertSame(page, pageCache.getPage(DATE));
+
+        pageCache.onJokeChange(JokeChangeEvent.saved(new JokeRecord(joke.id(), DATE, "changed", null, 2L, Instant.now())));
+        assertNotSame(page, pageCache.getPage(DATE));
+        verify(jokeService, times(2)).findJoke(DATE, JokeDateMatch.EXACT);
+    }
+
+    @Test
+    void getPage_date_evictedWhenJokeMovedOrRemoved() {
+        when(jokeService.findJoke(DATE, JokeDateMatch.EXACT)).thenReturn(Optional.of(joke));
+        JokeOfTheDayPage page = pageCache.getPage(DATE);
+
+        // moving the joke to another date only names its new date
+        pageCache.onJokeChange(JokeChangeEvent.saved(new JokeRecord(joke.id(), DATE.plusDays(7), "joke", null)));
+        JokeOfTheDayPage moved = pageCache.getPage(DATE);
+        assertNotSame(page, moved);
+
+        pageCache.onJokeChange(JokeChangeEvent.removed(joke.id()));
+        assertNotSame(moved, pageCache.getPage(DATE));
+    }
+
+    @Test
+    void getPage_date_leastRecentlyUsedEvicted() {
+        when(jokeService.findJoke(any(LocalDate.class), eq(JokeDateMatch.EXACT))).thenReturn(Optional.empty());
+
+        JokeOfTheDayPage first = pageCache.getPage(DATE);
+        pageCache.getPage(DATE.plusDays(1));
+        pageCache.getPage(DATE);
+        pageCache.getPage(DATE.plusDays(2));
+
+        assertSame(first, pageCache.getPage(DATE));
+        verify(jokeService, times(1)).findJoke(DATE, JokeDateMatch.EXACT);
+        pageCache.getPage(DATE.plusDays(1));
+        verify(jokeService, times(2)).findJoke(DATE.plusDays(1), JokeDateMatch.EXACT);
+    }
+}
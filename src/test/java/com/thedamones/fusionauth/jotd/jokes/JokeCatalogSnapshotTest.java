@@ -0,0 +1,98 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JokeCatalogSnapshotTest {
+
+    private static final LocalDate FIRST = LocalDate.of(2025, 4, 1);
+
+    @TempDir
+    private Path directory;
+
+    private Path path;
+    private List<JokeRecord> jokes;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        path = directory.resolve("jokes.snapshot");
+        jokes = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            jokes.add(new JokeRecord(UUID.randomUUID(), FIRST.plusDays(2L * i), "Joke " + i, i % 2 == 0 ? null : "Description " + i,
+                    (long) i, Instant.now().truncatedTo(ChronoUnit.MILLIS)));
+        }
+        jokes.add(new JokeRecord(UUID.randomUUID(), FIRST.plusYears(20), "Pourquoi les plongeurs plongent-ils en arrière ? 🤿",
+                "", null, null));
+        JokeCatalogSnapshot.write(path, jokes.stream());
+    }
+
+    @Test
+    void findById_shouldReturnEveryJoke() throws IOException {
+        JokeCatalogSnapshot snapshot = JokeCatalogSnapshot.open(path);
+
+        assertEquals(jokes.size(), snapshot.size());
+        for (JokeRecord joke : jokes) {
+            assertEquals(Optional.of(joke), snapshot.findById(joke.id()));
+        }
+        assertTrue(snapshot.findById(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void find_shouldMatchDates() throws IOException {
+        JokeCatalogSnapshot snapshot = JokeCatalogSnapshot.open(path);
+
+        assertEquals(Optional.of(jokes.get(1)), snapshot.find(FIRST.plusDays(2), JokeDateMatch.EXACT));
+        assertTrue(snapshot.find(FIRST.plusDays(3), JokeDateMatch.EXACT).isEmpty());
+        assertEquals(Optional.of(jokes.get(1)), snapshot.find(FIRST.plusDays(3), JokeDateMatch.FLOOR));
+        assertEquals(Optional.of(jokes.get(2)), snapshot.find(FIRST.plusDays(3), JokeDateMatch.CEILING));
+        assertEquals(Optional.of(jokes.get(1)), snapshot.find(FIRST.plusDays(3), JokeDateMatch.NEAREST));
+        assertTrue(snapshot.find(FIRST.minusDays(1), JokeDateMatch.FLOOR).isEmpty());
+        assertEquals(Optional.of(jokes.getLast()), snapshot.find(FIRST.plusYears(30), JokeDateMatch.FLOOR));
+    }
+
+    @Test
+    void between_shouldReturnJokesInDateOrder() throws IOException {
+        JokeCatalogSnapshot snapshot = JokeCatalogSnapshot.open(path);
+
+        assertEquals(jokes.subList(1, 4), snapshot.between(FIRST.plusDays(1), FIRST.plusDays(7), 10));
+        assertEquals(jokes.subList(1, 3), snapshot.between(FIRST.plusDays(1), FIRST.plusDays(7), 2));
+        assertEquals(List.of(), snapshot.between(FIRST.plusDays(7), FIRST.plusDays(1), 10));
+    }
+
+    @Test
+    void write_shouldReplaceSnapshotWithoutAffectingOpenSnapshot() throws IOException {
+        JokeCatalogSnapshot snapshot = JokeCatalogSnapshot.open(path);
+
+        JokeCatalogSnapshot.write(path, Stream.empty());
+
+        assertEquals(0, JokeCatalogSnapshot.open(path).size());
+        assertEquals(Optional.of(jokes.getFirst()), snapshot.findById(jokes.getFirst().id()));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(path), files.toList());
+        }
+    }
+
+    @Test
+    void open_whenNotSnapshot() throws IOException {
+        Files.writeString(path, "id,date,joke,description\n");
+
+        assertThrows(IOException.class, () -> JokeCatalogSnapshot.open(path));
+    }
+}
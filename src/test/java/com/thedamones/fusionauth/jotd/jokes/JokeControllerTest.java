@@ -3,10 +3,12 @@ package com.thedamones.fusionauth.jotd.jokes;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.thedamones.fusionauth.jotd.config.SecurityConfig;
 import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.hateoas.MediaTypes;
@@ -14,10 +16,22 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.io.ByteArrayInputStream;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 import static com.thedamones.fusionauth.jotd.jokes.TestJokes.TEST_DATE;
 import static com.thedamones.fusionauth.jotd.jokes.TestJokes.TEST_DESCRIPTION;
@@ -25,20 +39,36 @@ import static com.thedamones.fusionauth.jotd.jokes.TestJokes.TEST_ID;
 import static com.thedamones.fusionauth.jotd.jokes.TestJokes.TEST_JOKE;
 import static com.thedamones.fusionauth.jotd.jokes.TestJokes.createTestCreateJokeRecord;
 import static com.thedamones.fusionauth.jotd.jokes.TestJokes.createTestJokeRecord;
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.endsWith;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(JokeController.class)
-@Import({JokeModelAssembler.class, SecurityConfig.class})
+@Import({JokeModelAssembler.class, JokeExporter.class, JokeOfTheDayResponseCache.class, SecurityConfig.class})
 class JokeControllerTest {
 
     @Autowired
@@ -50,6 +80,9 @@ class JokeControllerTest {
     @MockitoBean
     private JokeService jokeService;
 
+    @MockitoSpyBean
+    private JokeModelAssembler jokeModelAssembler;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -59,7 +92,7 @@ class JokeControllerTest {
         Pageable pageRequest = PageRequest.ofSize(20);
         Page<JokeRecord> page = TestJokes.createPageOfJokeRecords(pageRequest, 100);
         JokeRecord joke0 = page.getContent().getFirst();
-        when(jokeService.getJokes(null, pageRequest)).thenReturn(page);
+        when(jokeService.getJokes(null, JokeFields.ALL, pageRequest)).thenReturn(page);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes"))
                 .andDo(print())
@@ -80,7 +113,7 @@ class JokeControllerTest {
         Pageable pageRequest = PageRequest.ofSize(20);
         Page<JokeRecord> page = TestJokes.createPageOfJokeRecords(pageRequest, 100);
         JokeRecord joke0 = page.getContent().getFirst();
-        when(jokeService.getJokes(joke0.date(), pageRequest)).thenReturn(page);
+        when(jokeService.getJokes(joke0.date(), JokeFields.ALL, pageRequest)).thenReturn(page);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes?date=" + joke0.date().toString()))
                 .andDo(print())
@@ -95,6 +128,188 @@ class JokeControllerTest {
                 .andExpect(jsonPath("$.page.totalElements", equalTo((int) page.getTotalElements())));
     }
 
+    @Test
+    @WithMockUser
+    void getJokes_withFields() throws Exception {
+        Pageable pageRequest = PageRequest.ofSize(20);
+        JokeRecord joke = new JokeRecord(UUID.randomUUID(), TEST_DATE, null, null, 0L, Instant.now());
+        when(jokeService.getJokes(null, new JokeFields(false, false), pageRequest)).thenReturn(new PageImpl<>(List.of(joke), pageRequest, 1));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes?fields=id,date"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.jokes[0].id", is(joke.id().toString())))
+                .andExpect(jsonPath("$._embedded.jokes[0].date", is(TEST_DATE.toString())))
+                .andExpect(jsonPath("$._embedded.jokes[0].joke").value(nullValue()))
+                .andExpect(jsonPath("$._links.self.href", containsString("fields=id,date")));
+    }
+
+    @Test
+    @WithMockUser
+    void getJokes_withUnknownField() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes?fields=id,punchline"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(jokeService);
+    }
+
+    @Test
+    @WithMockUser
+    void getJokes_shouldResolveNextDayLinksWithSingleQuery() throws Exception {
+        Pageable pageRequest = PageRequest.ofSize(20);
+        Page<JokeRecord> page = TestJokes.createPageOfJokeRecords(pageRequest, 100);
+        JokeRecord joke1 = page.getContent().get(1);
+        when(jokeService.getJokes(null, JokeFields.ALL, pageRequest)).thenReturn(page);
+        when(jokeRepository.findJokeDatesByDateIn(anyCollection())).thenReturn(page.stream()
+                .map(joke -> new JokeDate(joke.id(), joke.date()))
+                .toList());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.jokes[0]._links.nextDay.href", endsWith("/api/v1/jokes/" + joke1.id())))
+                .andExpect(jsonPath("$._embedded.jokes[19]._links.nextDay").doesNotExist());
+
+        verify(jokeRepository, times(1)).findJokeDatesByDateIn(anyCollection());
+        verify(jokeRepository, never()).findByDate(any());
+    }
+
+    @Test
+    @WithMockUser
+    void scrollJokes_shouldReturnSliceWithCursorLinks() throws Exception {
+        Page<JokeRecord> page = TestJokes.createPageOfJokeRecords(PageRequest.ofSize(3), 100);
+        JokeCursor after = new JokeCursor(TEST_DATE.minusDays(1));
+        JokeCursor previous = new JokeCursor(page.getContent().getFirst().date());
+        JokeCursor next = new JokeCursor(page.getContent().getLast().date());
+        when(jokeService.scrollJokes(null, after, null, 3)).thenReturn(new JokeSlice(page.getContent(), previous, next));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/scroll")
+                        .param("after", after.toString())
+                        .param("size", "3"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.jokes.length()", is(3)))
+                .andExpect(jsonPath("$._embedded.jokes[0].id", is(page.getContent().getFirst().id().toString())))
+                .andExpect(jsonPath("$._links.next.href", endsWith("/api/v1/jokes/scroll?after=" + next + "&size=3")))
+                .andExpect(jsonPath("$._links.prev.href", endsWith("/api/v1/jokes/scroll?before=" + previous + "&size=3")))
+                .andExpect(jsonPath("$.page").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser
+    void getJokeOn_shouldReturnMatchingJoke() throws Exception {
+        when(jokeService.findJoke(TEST_DATE.plusDays(3), JokeDateMatch.FLOOR)).thenReturn(Optional.of(createTestJokeRecord()));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/on/{date}", TEST_DATE.plusDays(3))
+                        .param("match", "FLOOR"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.date", is(TEST_DATE.toString())))
+                .andExpect(jsonPath("$._links.self.href", endsWith("/api/v1/jokes/" + TEST_ID)));
+    }
+
+    @Test
+    @WithMockUser
+    void getJokeOn_whenNotFound() throws Exception {
+        when(jokeService.findJoke(TEST_DATE, JokeDateMatch.EXACT)).thenReturn(Optional.empty());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/on/{date}", TEST_DATE))
+                .andDo(print())
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.detail", is("No joke on date '" + TEST_DATE + "' exists")));
+    }
+
+    @Test
+    @WithMockUser
+    void getJokesBetween_shouldReturnJokesWithNextLink() throws Exception {
+        Page<JokeRecord> page = TestJokes.createPageOfJokeRecords(PageRequest.ofSize(3), 3);
+        LocalDate to = TEST_DATE.plusDays(30);
+        JokeCursor next = new JokeCursor(page.getContent().getLast().date());
+        when(jokeService.getJokesBetween(TEST_DATE, to, 3)).thenReturn(new JokeSlice(page.getContent(), null, next));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/between")
+                        .param("from", TEST_DATE.toString())
+                        .param("to", to.toString())
+                        .param("size", "3"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.jokes.length()", is(3)))
+                .andExpect(jsonPath("$._links.next.href", endsWith("/api/v1/jokes/between?from=" + next.date().plusDays(1) + "&to=" + to + "&size=3")));
+    }
+
+    @Test
+    void getJokesBetween_whenUnauthenticated() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/between")
+                        .param("from", TEST_DATE.toString())
+                        .param("to", TEST_DATE.toString()))
+                .andExpect(status().isUnauthorized());
+        verifyNoInteractions(jokeService);
+    }
+
+    @Test
+    @WithMockUser
+    void scrollJokes_withInvalidCursor() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/scroll")
+                        .param("after", "not-a-cursor"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void exportJokes_asNdjson() throws Exception {
+        JokeRecord jokeRecord = createTestJokeRecord();
+        doAnswer(exportJokes(jokeRecord, jokeRecord)).when(jokeService).exportJokes(eq(null), eq(null), any());
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String line = objectMapper.writeValueAsString(jokeRecord);
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-ndjson"))
+                .andExpect(content().string(line + "\n" + line + "\n"));
+    }
+
+    @Test
+    @WithMockUser
+    void exportJokes_asCsvForDateRange() throws Exception {
+        JokeRecord jokeRecord = createTestJokeRecord();
+        doAnswer(exportJokes(jokeRecord)).when(jokeService).exportJokes(eq(TEST_DATE), eq(TEST_DATE.plusDays(7)), any());
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/export")
+                        .param("from", TEST_DATE.toString())
+                        .param("to", TEST_DATE.plusDays(7).toString())
+                        .param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/csv"))
+                .andExpect(content().string("id,date,joke,description\n"
+                        + TEST_ID + "," + TEST_DATE + "," + TEST_JOKE + "," + TEST_DESCRIPTION + "\n"));
+    }
+
+    @Test
+    public void exportJokes_withoutUser_returnsUnauthorized() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/export"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private static Answer<Void> exportJokes(JokeRecord... jokes) {
+        return invocation -> {
+            Consumer<JokeRecord> consumer = invocation.getArgument(2);
+            Arrays.stream(jokes).forEach(consumer);
+            return null;
+        };
+    }
+
     @Test
     public void getJokes_withoutUser_returnsUnauthorized() throws Exception {
         mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes"))
@@ -170,7 +385,7 @@ class JokeControllerTest {
     void getJokeOfTheDay_shouldReturnResourceModel() throws Exception {
         JokeRecord jokeRecord = createTestJokeRecord();
         String selfLink = "/api/v1/jokes/" + jokeRecord.id().toString();
-        when(jokeService.getJokeOfTheDay()).thenReturn(jokeRecord);
+        when(jokeService.getJokeOfTheDaySnapshot(ZoneId.systemDefault())).thenReturn(new JokeOfTheDay(TEST_DATE, jokeRecord, null));
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/today"))
                 .andDo(print())
@@ -180,12 +395,166 @@ class JokeControllerTest {
                 .andExpect(jsonPath("$.date", is(jokeRecord.date().toString())))
                 .andExpect(jsonPath("$.joke", is(jokeRecord.joke())))
                 .andExpect(jsonPath("$.description", is(jokeRecord.description())))
-                .andExpect(jsonPath("$._links.self.href", endsWith(selfLink)));
+                .andExpect(jsonPath("$._links.self.href", endsWith(selfLink)))
+                .andExpect(jsonPath("$._links.nextDay").doesNotExist());
+    }
+
+    @Test
+    void getJokeOfTheDay_withNextDay() throws Exception {
+        JokeRecord jokeRecord = createTestJokeRecord();
+        JokeRecord nextDay = new JokeRecord(UUID.randomUUID(), TEST_DATE.plusDays(1), TEST_JOKE, TEST_DESCRIPTION);
+        when(jokeService.getJokeOfTheDaySnapshot(ZoneId.systemDefault())).thenReturn(new JokeOfTheDay(TEST_DATE, jokeRecord, nextDay));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/today"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._links.nextDay.href", endsWith("/api/v1/jokes/" + nextDay.id())));
+
+        verifyNoInteractions(jokeRepository);
+    }
+
+    @Test
+    void getJokeOfTheDay_whenRecurring() throws Exception {
+        JokeRecord jokeRecord = new RecurringJokeRecord(TEST_ID, MonthDay.from(TEST_DATE), TEST_JOKE, TEST_DESCRIPTION, 0L, null)
+                .toJokeRecord(TEST_DATE);
+        when(jokeService.getJokeOfTheDaySnapshot(ZoneId.systemDefault())).thenReturn(new JokeOfTheDay(TEST_DATE, jokeRecord, null));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/today"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.date", is(TEST_DATE.toString())))
+                .andExpect(jsonPath("$.recurring", is(MonthDay.from(TEST_DATE).toString())))
+                .andExpect(jsonPath("$._links.self.href", endsWith("/api/v1/recurring-jokes/" + TEST_ID)));
+    }
+
+    @Test
+    void getJokeOfTheDay_shouldReturnValidators() throws Exception {
+        JokeRecord jokeRecord = createTestJokeRecord();
+        when(jokeService.getJokeOfTheDaySnapshot(ZoneId.systemDefault())).thenReturn(new JokeOfTheDay(TEST_DATE, jokeRecord, null));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/today"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, startsWith("\"" + jokeRecord.id() + ".0.")))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("public")))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=")));
+    }
+
+    @Test
+    void getJokeOfTheDay_whenStale() throws Exception {
+        JokeRecord jokeRecord = createTestJokeRecord();
+        JokeOfTheDay stale = new JokeOfTheDay(TEST_DATE, jokeRecord, null).asStale(Instant.now().minusSeconds(90));
+        when(jokeService.getJokeOfTheDaySnapshot(ZoneId.systemDefault())).thenReturn(stale);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/today"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(jokeRecord.id().toString())))
+                .andExpect(header().string(HttpHeaders.AGE, "90"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, public"));
+    }
+
+    @Test
+    void getJokeOfTheDay_whenNotModified() throws Exception {
+        JokeRecord jokeRecord = createTestJokeRecord();
+        when(jokeService.getJokeOfTheDaySnapshot(ZoneId.systemDefault())).thenReturn(new JokeOfTheDay(TEST_DATE, jokeRecord, null));
+        String eTag = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/today"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/today").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getJokeOfTheDay_whenNextDayAdded_shouldChangeETag() throws Exception {
+        JokeRecord jokeRecord = createTestJokeRecord();
+        JokeRecord nextDay = new JokeRecord(UUID.randomUUID(), TEST_DATE.plusDays(1), TEST_JOKE, TEST_DESCRIPTION);
+        when(jokeService.getJokeOfTheDaySnapshot(ZoneId.systemDefault())).thenReturn(new JokeOfTheDay(TEST_DATE, jokeRecord, null));
+        String eTag = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/today"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        when(jokeService.getJokeOfTheDaySnapshot(ZoneId.systemDefault())).thenReturn(new JokeOfTheDay(TEST_DATE, jokeRecord, nextDay));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/today").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andDo(print())
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getJokeOfTheDay_gzipped() throws Exception {
+        JokeRecord jokeRecord = createTestJokeRecord();
+        when(jokeService.getJokeOfTheDaySnapshot(ZoneId.systemDefault())).thenReturn(new JokeOfTheDay(TEST_DATE, jokeRecord, null));
+        MvcResult plain = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/today"))
+                .andReturn();
+
+        MvcResult gzipped = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/today").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT_ENCODING)))
+                .andReturn();
+
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(gzipped.getResponse().getContentAsByteArray()))) {
+            assertArrayEquals(plain.getResponse().getContentAsByteArray(), body.readAllBytes());
+        }
+        assertEquals(gzipped.getResponse().getContentAsByteArray().length, gzipped.getResponse().getContentLength());
+        assertNotEquals(plain.getResponse().getHeader(HttpHeaders.ETAG), gzipped.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void getJokeOfTheDay_acceptingJson() throws Exception {
+        when(jokeService.getJokeOfTheDaySnapshot(ZoneId.systemDefault())).thenReturn(new JokeOfTheDay(TEST_DATE, createTestJokeRecord(), null));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/today").accept(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(jsonPath("$._links.self.href", endsWith("/api/v1/jokes/" + TEST_ID)));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/today").accept(MediaType.TEXT_HTML))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    void getJokeOfTheDay_serializedOncePerJokeOfTheDay() throws Exception {
+        JokeOfTheDay jokeOfTheDay = new JokeOfTheDay(TEST_DATE, createTestJokeRecord(), null);
+        when(jokeService.getJokeOfTheDaySnapshot(ZoneId.systemDefault())).thenReturn(jokeOfTheDay);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/today"))
+                .andExpect(status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/today"))
+                .andExpect(status().isOk());
+        // the links are absolute, so another host gets its own body
+        mockMvc.perform(MockMvcRequestBuilders.get("http://jokes.example.com/api/v1/jokes/today"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._links.self.href", startsWith("http://jokes.example.com/")));
+
+        verify(jokeModelAssembler, times(2)).toModel(jokeOfTheDay);
+    }
+
+    @Test
+    void getJokeOfTheDay_inTimeZone() throws Exception {
+        ZoneId zone = ZoneId.of("Pacific/Kiritimati");
+        JokeRecord jokeRecord = createTestJokeRecord();
+        when(jokeService.getJokeOfTheDaySnapshot(zone)).thenReturn(new JokeOfTheDay(TEST_DATE, jokeRecord, null));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/today").param("zone", zone.getId()))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(jokeRecord.id().toString())))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(JokeController.TIME_ZONE)))
+                .andExpect(header().dateValue(HttpHeaders.LAST_MODIFIED, TEST_DATE.atStartOfDay(zone).toInstant().toEpochMilli()));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/today").header(JokeController.TIME_ZONE, zone.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(jokeRecord.id().toString())));
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/today").param("zone", "Mars/Olympus_Mons"))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
     void getJokeOfTheDay_whenNotFound() throws Exception {
-        when(jokeService.getJokeOfTheDay()).thenThrow(NoJokeOfTheDayException.class);
+        when(jokeService.getJokeOfTheDaySnapshot(ZoneId.systemDefault())).thenThrow(NoJokeOfTheDayException.class);
 
         mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/today"))
                 .andDo(print())
@@ -207,7 +576,21 @@ class JokeControllerTest {
                 .andExpect(jsonPath("$.date", is(jokeRecord.date().toString())))
                 .andExpect(jsonPath("$.joke", is(jokeRecord.joke())))
                 .andExpect(jsonPath("$.description", is(jokeRecord.description())))
-                .andExpect(jsonPath("$._links.self.href", endsWith(selfLink)));
+                .andExpect(jsonPath("$._links.self.href", endsWith(selfLink)))
+                .andExpect(jsonPath("$.version").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser
+    void getJoke_whenNotModified() throws Exception {
+        JokeRecord jokeRecord = createTestJokeRecord();
+        when(jokeService.getJoke(jokeRecord.id())).thenReturn(jokeRecord);
+        String eTag = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/" + jokeRecord.id()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/" + jokeRecord.id()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andDo(print())
+                .andExpect(status().isNotModified());
     }
 
     @Test
@@ -226,7 +609,7 @@ class JokeControllerTest {
         JokeRecord jokeRecord = createTestJokeRecord();
         String selfLink = "/api/v1/jokes/" + jokeRecord.id().toString();
         when(jokeService.getJoke(jokeRecord.id())).thenReturn(jokeRecord);
-        when(jokeService.updateJoke(jokeRecord.id(), jokeRecord)).thenReturn(jokeRecord);
+        when(jokeService.updateJoke(jokeRecord.id(), jokeRecord, null)).thenReturn(jokeRecord);
 
         mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/jokes/" + jokeRecord.id())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -241,12 +624,71 @@ class JokeControllerTest {
                 .andExpect(jsonPath("$._links.self.href", endsWith(selfLink)));
     }
 
+    @Test
+    @WithMockUser
+    void updateJoke_withoutIfMatch_hasNoETag() throws Exception {
+        JokeRecord jokeRecord = createTestJokeRecord();
+        JokeRecord updated = new JokeRecord(jokeRecord.id(), jokeRecord.date(), jokeRecord.joke(), jokeRecord.description(), null, Instant.now());
+        when(jokeService.updateJoke(jokeRecord.id(), jokeRecord, null)).thenReturn(updated);
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/jokes/" + jokeRecord.id())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(jokeRecord)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    @WithMockUser
+    void updateJoke_withIfMatch() throws Exception {
+        JokeRecord jokeRecord = createTestJokeRecord();
+        JokeRecord updated = new JokeRecord(jokeRecord.id(), jokeRecord.date(), jokeRecord.joke(), jokeRecord.description(), 4L, Instant.now());
+        when(jokeService.updateJoke(jokeRecord.id(), jokeRecord, 3L)).thenReturn(updated);
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/jokes/" + jokeRecord.id())
+                        .header(HttpHeaders.IF_MATCH, "\"" + jokeRecord.id() + ".3.abc\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(jokeRecord)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG));
+    }
+
+    @Test
+    @WithMockUser
+    void updateJoke_whenVersionConflict() throws Exception {
+        JokeRecord jokeRecord = createTestJokeRecord();
+        when(jokeService.updateJoke(jokeRecord.id(), jokeRecord, 3L)).thenThrow(JokeVersionConflictException.class);
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/jokes/" + jokeRecord.id())
+                        .header(HttpHeaders.IF_MATCH, "\"" + jokeRecord.id() + ".3.abc\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(jokeRecord)))
+                .andDo(print())
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @WithMockUser
+    void updateJoke_whenIfMatchForOtherJoke() throws Exception {
+        JokeRecord jokeRecord = createTestJokeRecord();
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/jokes/" + jokeRecord.id())
+                        .header(HttpHeaders.IF_MATCH, "\"" + UUID.randomUUID() + ".3.abc\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(jokeRecord)))
+                .andDo(print())
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     @WithMockUser
     void updateJoke_withChangedId() throws Exception {
         UUID jokeId = UUID.randomUUID();
         JokeRecord jokeRecord = createTestJokeRecord();
-        when(jokeService.updateJoke(jokeId, jokeRecord)).thenThrow(JokeDataOperationException.class);
+        when(jokeService.updateJoke(jokeId, jokeRecord, null)).thenThrow(JokeDataOperationException.class);
 
         mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/jokes/" + jokeId)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -259,7 +701,7 @@ class JokeControllerTest {
     @WithMockUser
     void updateJoke_whenNotFound() throws Exception {
         JokeRecord jokeRecord = createTestJokeRecord();
-        when(jokeService.updateJoke(jokeRecord.id(), jokeRecord)).thenThrow(JokeNotFoundException.class);
+        when(jokeService.updateJoke(jokeRecord.id(), jokeRecord, null)).thenThrow(JokeNotFoundException.class);
 
         mockMvc.perform(MockMvcRequestBuilders.put("/api/v1/jokes/" + jokeRecord.id())
                         .contentType(MediaType.APPLICATION_JSON)
@@ -290,4 +732,60 @@ class JokeControllerTest {
                 .andExpect(status().isNotFound());
     }
 
-}
\ No newline at end of file
+    @Test
+    @WithMockUser
+    void shiftJokes_shouldMoveJokes() throws Exception {
+        when(jokeService.shiftJokes(TEST_DATE, TEST_DATE.plusDays(6), -2)).thenReturn(3);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/jokes/between/shift")
+                        .param("from", TEST_DATE.toString())
+                        .param("to", TEST_DATE.plusDays(6).toString())
+                        .param("days", "-2"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.jokes", is(3)));
+    }
+
+    @Test
+    @WithMockUser
+    void shiftJokes_whenDateTaken() throws Exception {
+        when(jokeService.shiftJokes(TEST_DATE, TEST_DATE.plusDays(6), 1)).thenThrow(JokeDataIntegrityException.class);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/jokes/between/shift")
+                        .param("from", TEST_DATE.toString())
+                        .param("to", TEST_DATE.plusDays(6).toString())
+                        .param("days", "1"))
+                .andDo(print())
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @WithMockUser
+    void patchJokes_shouldUpdateJokes() throws Exception {
+        when(jokeService.updateDescriptions(TEST_DATE, TEST_DATE.plusDays(6), TEST_DESCRIPTION)).thenReturn(5);
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/v1/jokes/between")
+                        .param("from", TEST_DATE.toString())
+                        .param("to", TEST_DATE.plusDays(6).toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new JokeRangePatch(TEST_DESCRIPTION))))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.jokes", is(5)));
+    }
+
+    @Test
+    @WithMockUser
+    void deleteJokes_shouldRemoveJokes() throws Exception {
+        when(jokeService.removeJokes(TEST_DATE, TEST_DATE.plusDays(6))).thenReturn(7);
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/v1/jokes/between")
+                        .param("from", TEST_DATE.toString())
+                        .param("to", TEST_DATE.plusDays(6).toString()))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.jokes", is(7)));
+
+        verify(jokeService, never()).removeJoke(any());
+    }
+}
@@ -0,0 +1,83 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JokeDateIndexTest {
+
+    private static final LocalDate FIRST = LocalDate.of(2025, 4, 1);
+
+    // jokes on the 1st, 4th and 10th
+    private final JokeDate first = new JokeDate(UUID.randomUUID(), FIRST);
+    private final JokeDate fourth = new JokeDate(UUID.randomUUID(), FIRST.plusDays(3));
+    private final JokeDate tenth = new JokeDate(UUID.randomUUID(), FIRST.plusDays(9));
+    private final JokeDateIndex index = JokeDateIndex.of(Stream.of(first, fourth, tenth));
+
+    @Test
+    void find_exact() {
+        assertEquals(Optional.of(fourth), index.find(fourth.date(), JokeDateMatch.EXACT));
+        assertTrue(index.find(FIRST.plusDays(1), JokeDateMatch.EXACT).isEmpty());
+    }
+
+    @Test
+    void find_floorAndCeiling() {
+        assertEquals(Optional.of(fourth), index.find(FIRST.plusDays(5), JokeDateMatch.FLOOR));
+        assertEquals(Optional.of(tenth), index.find(FIRST.plusDays(5), JokeDateMatch.CEILING));
+        assertEquals(Optional.of(fourth), index.find(fourth.date(), JokeDateMatch.CEILING));
+        assertTrue(index.find(FIRST.minusDays(1), JokeDateMatch.FLOOR).isEmpty());
+        assertTrue(index.find(FIRST.plusDays(10), JokeDateMatch.CEILING).isEmpty());
+    }
+
+    @Test
+    void find_nearest() {
+        assertEquals(Optional.of(fourth), index.find(FIRST.plusDays(5), JokeDateMatch.NEAREST));
+        assertEquals(Optional.of(tenth), index.find(FIRST.plusDays(7), JokeDateMatch.NEAREST));
+        // equally close to the 4th and the 10th
+        assertEquals(Optional.of(fourth), index.find(FIRST.plusDays(6), JokeDateMatch.NEAREST));
+        assertEquals(Optional.of(first), index.find(FIRST.minusYears(1), JokeDateMatch.NEAREST));
+        assertEquals(Optional.of(tenth), index.find(FIRST.plusYears(1), JokeDateMatch.NEAREST));
+        assertTrue(JokeDateIndex.EMPTY.find(FIRST, JokeDateMatch.NEAREST).isEmpty());
+    }
+
+    @Test
+    void between() {
+        assertEquals(List.of(first, fourth, tenth), index.between(FIRST, tenth.date(), 10));
+        assertEquals(List.of(fourth), index.between(FIRST.plusDays(1), FIRST.plusDays(9), 1));
+        assertEquals(List.of(), index.between(FIRST.plusDays(4), FIRST.plusDays(8), 10));
+        assertEquals(List.of(), index.between(tenth.date(), FIRST, 10));
+    }
+
+    @Test
+    void with_addsMovesAndRemovesJokes() {
+        JokeDate second = new JokeDate(UUID.randomUUID(), FIRST.plusDays(1));
+        JokeDate movedTenth = new JokeDate(tenth.id(), FIRST.minusDays(1));
+
+        JokeDateIndex updated = index.with(List.of(second, movedTenth), List.of(fourth.id()));
+
+        assertEquals(List.of(movedTenth, first, second), updated.between(FIRST.minusYears(1), FIRST.plusYears(1), 10));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void with_replacesJokeOnSameDate() {
+        JokeDate replacement = new JokeDate(UUID.randomUUID(), fourth.date());
+
+        JokeDateIndex updated = index.with(List.of(replacement), List.of());
+
+        assertEquals(List.of(first, replacement, tenth), updated.between(FIRST, tenth.date(), 10));
+    }
+
+    @Test
+    void of_whenNotInDateOrder() {
+        assertThrows(IllegalArgumentException.class, () -> JokeDateIndex.of(Stream.of(fourth, first)));
+    }
+}
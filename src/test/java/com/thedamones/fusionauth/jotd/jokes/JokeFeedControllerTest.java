@@ -0,0 +1,124 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import com.thedamones.fusionauth.jotd.config.SecurityConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.thedamones.fusionauth.jotd.jokes.TestJokes.TEST_DATE;
+import static com.thedamones.fusionauth.jotd.jokes.TestJokes.createTestJokeRecord;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(value = JokeFeedController.class, properties = "jotd.feed.heartbeat-interval=1h")
+@Import({JokeFeedService.class, SimpleMeterRegistry.class, SecurityConfig.class})
+class JokeFeedControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JokeFeedService jokeFeedService;
+
+    @MockitoBean
+    private JokeService jokeService;
+
+    @Test
+    void jokeOfTheDayEvents_sendsCurrentJokeOfTheDay() throws Exception {
+        JokeRecord jokeRecord = createTestJokeRecord();
+        publish(new JokeOfTheDay(TEST_DATE, jokeRecord, null));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/today/events").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String events = awaitContent(result, "\"id\":\"" + jokeRecord.id() + "\"");
+        // the headers are only written along with the first event
+        assertEquals(MediaType.TEXT_EVENT_STREAM_VALUE, result.getResponse().getContentType());
+        assertTrue(events.contains("event:" + JokeFeedService.JOKE_OF_THE_DAY_EVENT + "\n"), events);
+        assertTrue(events.contains("data:{\"date\":\"" + TEST_DATE + "\",\"joke\":{"), events);
+    }
+
+    @Test
+    @WithMockUser
+    void jokeEvents_sendsChanges() throws Exception {
+        JokeRecord jokeRecord = createTestJokeRecord();
+        publish(new JokeOfTheDay(TEST_DATE, jokeRecord, null));
+        MvcResult changes = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult jokeOfTheDay = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/today/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitContent(changes, "\"id\":\"" + jokeRecord.id() + "\"");
+        awaitContent(jokeOfTheDay, "\"id\":\"" + jokeRecord.id() + "\"");
+
+        // editing today's joke also changes the joke of the day
+        JokeRecord edited = new JokeRecord(jokeRecord.id(), TEST_DATE, "edited", null, 1L, Instant.now());
+        when(jokeService.getJokeOfTheDaySnapshot()).thenReturn(new JokeOfTheDay(TEST_DATE, edited, null));
+        UUID removed = UUID.randomUUID();
+        jokeFeedService.onJokeChange(new JokeChangeEvent(List.of(edited), List.of(removed)));
+
+        String events = awaitContent(changes, "\"removed\":[\"" + removed + "\"]");
+        assertTrue(events.contains("event:" + JokeFeedService.JOKE_CHANGE_EVENT + "\n"), events);
+        String jokeOfTheDayEvents = awaitContent(jokeOfTheDay, "\"joke\":\"edited\"");
+        assertFalse(jokeOfTheDayEvents.contains(JokeFeedService.JOKE_CHANGE_EVENT), jokeOfTheDayEvents);
+    }
+
+    @Test
+    void jokeEvents_requiresAuthentication() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/events"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void jokeOfTheDayEvents_whenNoJokeOfTheDay() throws Exception {
+        when(jokeService.getJokeOfTheDaySnapshot()).thenThrow(NoJokeOfTheDayException.class);
+        jokeFeedService.onRecurringJokeChange(new RecurringJokeChangeEvent(Set.of()));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/jokes/today/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        awaitContent(result, "\"joke\":null");
+    }
+
+    /**
+     * Makes the joke of the day current, since the feed is shared by every test.
+     */
+    private void publish(JokeOfTheDay jokeOfTheDay) {
+        when(jokeService.getJokeOfTheDaySnapshot()).thenReturn(jokeOfTheDay);
+        jokeFeedService.onRecurringJokeChange(new RecurringJokeChangeEvent(Set.of()));
+    }
+
+    /**
+     * Waits for the events streamed so far to include the text, since they are sent asynchronously.
+     */
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            content = result.getResponse().getContentAsString();
+        }
+        assertTrue(content.contains(expected), "Expected '" + expected + "' in " + content);
+        return content;
+    }
+}
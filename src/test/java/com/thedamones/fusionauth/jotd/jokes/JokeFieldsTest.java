@@ -0,0 +1,29 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JokeFieldsTest {
+
+    @Test
+    void valueOf() {
+        assertEquals(new JokeFields(false, false), JokeFields.valueOf("id,date"));
+        assertEquals(new JokeFields(false, false), JokeFields.valueOf("date"));
+        assertEquals(new JokeFields(true, false), JokeFields.valueOf("id, joke"));
+        assertEquals(JokeFields.ALL, JokeFields.valueOf("description,joke"));
+    }
+
+    @Test
+    void valueOf_unknownField() {
+        assertThrows(IllegalArgumentException.class, () -> JokeFields.valueOf("id,punchline"));
+    }
+
+    @Test
+    void toString_roundTrips() {
+        assertEquals("id,date", new JokeFields(false, false).toString());
+        assertEquals("id,date,joke,description", JokeFields.ALL.toString());
+        assertEquals(new JokeFields(false, true), JokeFields.valueOf(new JokeFields(false, true).toString()));
+    }
+}
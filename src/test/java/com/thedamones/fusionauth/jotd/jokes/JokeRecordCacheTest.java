@@ -0,0 +1,191 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JokeRecordCacheTest {
+
+    private final JokeRecord joke = new JokeRecord(UUID.randomUUID(), LocalDate.of(2025, 4, 1), "joke", "description");
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<UUID, Optional<JokeRecord>> loader = id -> {
+        loads.incrementAndGet();
+        return id.equals(joke.id()) ? Optional.of(joke) : Optional.empty();
+    };
+
+    @Test
+    void get_cachedUntilChanged() {
+        JokeRecordCache cache = new JokeRecordCache(meterRegistry, 10, Duration.ofMinutes(5));
+
+        assertSame(joke, cache.get(joke.id(), loader).orElseThrow());
+        assertSame(joke, cache.get(joke.id(), loader).orElseThrow());
+        assertEquals(1, loads.get());
+
+        cache.onJokeChange(JokeChangeEvent.saved(new JokeRecord(UUID.randomUUID(), joke.date().plusDays(1), "other", null)));
+        cache.get(joke.id(), loader);
+        assertEquals(1, loads.get());
+
+        cache.onJokeChange(JokeChangeEvent.saved(joke));
+        cache.get(joke.id(), loader);
+        assertEquals(2, loads.get());
+        assertEquals(2, gets("hit"));
+        assertEquals(2, gets("miss"));
+    }
+
+    @Test
+    void get_missingJokeNotCached() {
+        JokeRecordCache cache = new JokeRecordCache(meterRegistry, 10, Duration.ofMinutes(5));
+
+        UUID missing = UUID.randomUUID();
+        assertTrue(cache.get(missing, loader).isEmpty());
+        assertTrue(cache.get(missing, loader).isEmpty());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_expired() {
+        JokeRecordCache cache = new JokeRecordCache(meterRegistry, 10, Duration.ZERO);
+
+        cache.get(joke.id(), loader);
+        cache.get(joke.id(), loader);
+
+        assertEquals(2, loads.get());
+        assertEquals(1, meterRegistry.counter("jotd.jokes.cache.evictions", "cause", "expired").count());
+    }
+
+    @Test
+    void get_leastRecentlyUsedEvicted() {
+        JokeRecordCache cache = new JokeRecordCache(meterRegistry, 2, Duration.ofMinutes(5));
+        List<JokeRecord> others = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            others.add(new JokeRecord(UUID.randomUUID(), joke.date().plusDays(i + 1), "other", null));
+        }
+
+        cache.get(joke.id(), loader);
+        cache.get(others.get(0).id(), id -> Optional.of(others.get(0)));
+        cache.get(joke.id(), loader);
+        cache.get(others.get(1).id(), id -> Optional.of(others.get(1)));
+
+        assertEquals(2, cache.size());
+        cache.get(joke.id(), loader);
+        assertEquals(1, loads.get());
+        assertEquals(1, meterRegistry.counter("jotd.jokes.cache.evictions", "cause", "size").count());
+    }
+
+    @Test
+    void get_concurrentMissesShareOneLoad() throws Exception {
+        JokeRecordCache cache = new JokeRecordCache(meterRegistry, 10, Duration.ofMinutes(5));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<UUID, Optional<JokeRecord>> slowLoader = id -> {
+            loading.countDown();
+            await(release);
+            return loader.apply(id);
+        };
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Optional<JokeRecord>> first = executor.submit(() -> cache.get(joke.id(), slowLoader));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            List<Future<Optional<JokeRecord>>> others = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                others.add(executor.submit(() -> cache.get(joke.id(), slowLoader)));
+            }
+            // wait for every other request to be waiting on the load
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (gets("coalesced") < others.size() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            assertSame(joke, first.get().orElseThrow());
+            for (Future<Optional<JokeRecord>> other : others) {
+                assertSame(joke, other.get().orElseThrow());
+            }
+        }
+        assertEquals(1, loads.get());
+        assertEquals(10, gets("coalesced"));
+    }
+
+    @Test
+    void get_loadFailureSharedWithWaiters() throws Exception {
+        JokeRecordCache cache = new JokeRecordCache(meterRegistry, 10, Duration.ofMinutes(5));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<UUID, Optional<JokeRecord>> failingLoader = id -> {
+            loading.countDown();
+            await(release);
+            throw new JokeServiceException("failed", null);
+        };
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Optional<JokeRecord>> first = executor.submit(() -> cache.get(joke.id(), failingLoader));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<Optional<JokeRecord>> waiter = executor.submit(() -> cache.get(joke.id(), failingLoader));
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (gets("coalesced") < 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            assertTrue(assertThrows(Exception.class, first::get).getCause() instanceof JokeServiceException);
+            assertTrue(assertThrows(Exception.class, waiter::get).getCause() instanceof JokeServiceException);
+        }
+        // the failure isn't cached
+        assertSame(joke, cache.get(joke.id(), loader).orElseThrow());
+    }
+
+    @Test
+    void get_loadOverlappingChangeNotCached() {
+        JokeRecordCache cache = new JokeRecordCache(meterRegistry, 10, Duration.ofMinutes(5));
+
+        cache.get(joke.id(), id -> {
+            // committed while the joke was being read
+            cache.onJokeChange(JokeChangeEvent.saved(joke));
+            return loader.apply(id);
+        });
+        cache.get(joke.id(), loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void onCatalogSnapshot_clearsCache() {
+        JokeRecordCache cache = new JokeRecordCache(meterRegistry, 10, Duration.ofMinutes(5));
+        cache.get(joke.id(), loader);
+
+        cache.onCatalogSnapshot(null);
+
+        assertEquals(0, cache.size());
+    }
+
+    private double gets(String result) {
+        return meterRegistry.counter("jotd.jokes.cache.gets", "result", result).count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the bulk statements of {@link JokeRepository} against the database.
+ */
+@DataJpaTest
+class JokeRepositoryTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 4, 1);
+
+    @Autowired
+    private JokeRepository jokeRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    // the id of the joke on each of 10 consecutive days
+    private final Map<LocalDate, UUID> ids = new LinkedHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 10; i++) {
+            Joke joke = new Joke();
+            joke.setDate(DATE.plusDays(i));
+            joke.setJoke("Joke " + i);
+            ids.put(joke.getDate(), jokeRepository.save(joke).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void shiftJokes_forwardOntoOwnDates() {
+        assertEquals(3, jokeRepository.shiftJokes(DATE.plusDays(7), DATE.plusDays(9), 1, Instant.now()));
+
+        assertMoved(DATE.plusDays(7), DATE.plusDays(9), 1);
+    }
+
+    @Test
+    void shiftJokes_forwardOntoOwnDatesBeforeOtherJokes() {
+        jokeRepository.deleteJoke(ids.get(DATE.plusDays(5)));
+
+        assertEquals(3, jokeRepository.shiftJokes(DATE.plusDays(2), DATE.plusDays(4), 1, Instant.now()));
+
+        assertMoved(DATE.plusDays(2), DATE.plusDays(4), 1);
+    }
+
+    @Test
+    void shiftJokes_backwardOntoOwnDates() {
+        jokeRepository.deleteJoke(ids.get(DATE.plusDays(2)));
+        jokeRepository.deleteJoke(ids.get(DATE.plusDays(3)));
+
+        assertEquals(4, jokeRepository.shiftJokes(DATE.plusDays(4), DATE.plusDays(7), -2, Instant.now()));
+
+        assertMoved(DATE.plusDays(4), DATE.plusDays(7), -2);
+    }
+
+    @Test
+    void shiftJokes_clearOfOwnDates() {
+        assertEquals(2, jokeRepository.shiftJokes(DATE, DATE.plusDays(1), -5, Instant.now()));
+
+        assertMoved(DATE, DATE.plusDays(1), -5);
+    }
+
+    @Test
+    void shiftJokes_withNoJokes() {
+        assertEquals(0, jokeRepository.shiftJokes(DATE.plusDays(20), DATE.plusDays(22), 1, Instant.now()));
+        assertEquals(0, jokeRepository.shiftJokes(DATE.minusDays(5), DATE.minusDays(3), 1, Instant.now()));
+    }
+
+    // checks that the jokes from and to the dates moved by the days and their versions were incremented once, and
+    // that the other jokes weren't changed
+    private void assertMoved(LocalDate from, LocalDate to, int days) {
+        entityManager.clear();
+        ids.forEach((date, id) -> jokeRepository.findById(id).ifPresent(joke -> {
+            boolean moved = !date.isBefore(from) && !date.isAfter(to);
+            assertEquals(moved ? date.plusDays(days) : date, joke.getDate(), "joke from " + date);
+            assertEquals(moved ? 1L : 0L, joke.getVersion(), "joke from " + date);
+        }));
+    }
+}
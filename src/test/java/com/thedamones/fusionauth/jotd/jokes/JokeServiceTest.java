@@ -1,27 +1,52 @@
 package com.thedamones.fusionauth.jotd.jokes;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.OngoingStubbing;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.convert.support.DefaultConversionService;
 import org.springframework.core.convert.support.GenericConversionService;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.orm.jpa.JpaSystemException;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static com.thedamones.fusionauth.jotd.jokes.TestJokes.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,22 +57,41 @@ class JokeServiceTest {
     @Mock
     private JokeRepository jokeRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private RecurringJokeService recurringJokeService;
+
+    @Mock
+    private JokeCatalogSnapshotService catalogSnapshotService;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private JokeRecordCache jokeCache = new JokeRecordCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+
     @Spy
     private static GenericConversionService conversionService = new DefaultConversionService();
 
-    @InjectMocks
     private JokeService jokeService;
 
     @BeforeAll
-    static void setUp() {
+    static void setUpConversionService() {
         conversionService.addConverter(new JokeToJokeRecordConverter());
     }
 
+    @BeforeEach
+    void setUp() {
+        jokeService = createJokeService(Duration.ofSeconds(5));
+    }
+
     @Test
     void getJokes_shouldReturnFirstPage() {
-        when(jokeRepository.findAll(DEFAULT_PAGE_REQUEST)).thenReturn(Page.empty(DEFAULT_PAGE_REQUEST));
+        when(jokeRepository.findJokeRecords(true, true, DEFAULT_PAGE_REQUEST)).thenReturn(Page.empty(DEFAULT_PAGE_REQUEST));
 
-        Page<JokeRecord> jokes = jokeService.getJokes(null, DEFAULT_PAGE_REQUEST);
+        Page<JokeRecord> jokes = jokeService.getJokes(null, JokeFields.ALL, DEFAULT_PAGE_REQUEST);
 
         assertEquals(DEFAULT_PAGE_REQUEST.getPageNumber(), jokes.getNumber());
         assertEquals(DEFAULT_PAGE_REQUEST.getPageSize(), jokes.getSize());
@@ -58,9 +102,9 @@ class JokeServiceTest {
     @Test
     void getJokes_shouldReturnSpecifiedPage() {
         Pageable pageRequest = PageRequest.of(1, 20);
-        when(jokeRepository.findAll(DEFAULT_PAGE_REQUEST)).thenReturn(Page.empty(pageRequest));
+        when(jokeRepository.findJokeRecords(true, true, DEFAULT_PAGE_REQUEST)).thenReturn(Page.empty(pageRequest));
 
-        Page<JokeRecord> jokes = jokeService.getJokes(null, DEFAULT_PAGE_REQUEST);
+        Page<JokeRecord> jokes = jokeService.getJokes(null, JokeFields.ALL, DEFAULT_PAGE_REQUEST);
 
         assertEquals(pageRequest.getPageNumber(), jokes.getNumber());
         assertEquals(pageRequest.getPageSize(), jokes.getSize());
@@ -71,9 +115,9 @@ class JokeServiceTest {
     @Test
     void getJokes_withDateFilter() {
         LocalDate today = LocalDate.now();
-        when(jokeRepository.findAllByDateGreaterThanEqual(today, DEFAULT_PAGE_REQUEST)).thenReturn(Page.empty(DEFAULT_PAGE_REQUEST));
+        when(jokeRepository.findJokeRecordsByDateGreaterThanEqual(today, true, true, DEFAULT_PAGE_REQUEST)).thenReturn(Page.empty(DEFAULT_PAGE_REQUEST));
 
-        Page<JokeRecord> jokes = jokeService.getJokes(today, DEFAULT_PAGE_REQUEST);
+        Page<JokeRecord> jokes = jokeService.getJokes(today, JokeFields.ALL, DEFAULT_PAGE_REQUEST);
 
         assertEquals(DEFAULT_PAGE_REQUEST.getPageNumber(), jokes.getNumber());
         assertEquals(DEFAULT_PAGE_REQUEST.getPageSize(), jokes.getSize());
@@ -81,6 +125,66 @@ class JokeServiceTest {
         assertEquals(0, jokes.getTotalElements());
     }
 
+    @Test
+    void getJokes_withFields() {
+        Page<JokeRecord> page = new PageImpl<>(List.of(new JokeRecord(UUID.randomUUID(), TEST_DATE, null, null, 0L, Instant.now())));
+        when(jokeRepository.findJokeRecords(false, false, DEFAULT_PAGE_REQUEST)).thenReturn(page);
+
+        Page<JokeRecord> jokes = jokeService.getJokes(null, JokeFields.valueOf("id,date"), DEFAULT_PAGE_REQUEST);
+
+        assertEquals(page.getContent(), jokes.getContent());
+        assertNull(jokes.getContent().getFirst().joke());
+    }
+
+    @Test
+    void scrollJokes_firstSlice() {
+        List<Joke> jokes = createPageOfJokes(PageRequest.ofSize(4), 4).getContent();
+        when(jokeRepository.findAllByOrderByDateAsc(Limit.of(4))).thenReturn(jokes);
+
+        JokeSlice slice = jokeService.scrollJokes(null, null, null, 3);
+
+        assertEquals(3, slice.jokes().size());
+        assertNull(slice.previous());
+        assertEquals(new JokeCursor(jokes.get(2).getDate()), slice.next());
+    }
+
+    @Test
+    void scrollJokes_afterCursor() {
+        List<Joke> jokes = createPageOfJokes(PageRequest.ofSize(2), 2).getContent();
+        JokeCursor after = new JokeCursor(TEST_DATE.minusDays(1));
+        when(jokeRepository.findAllByDateGreaterThanOrderByDateAsc(after.date(), Limit.of(4))).thenReturn(jokes);
+
+        JokeSlice slice = jokeService.scrollJokes(null, after, null, 3);
+
+        assertEquals(2, slice.jokes().size());
+        assertEquals(new JokeCursor(TEST_DATE), slice.previous());
+        assertNull(slice.next());
+    }
+
+    @Test
+    void scrollJokes_afterCursorBeforeDateFilter() {
+        JokeCursor after = new JokeCursor(TEST_DATE.minusDays(10));
+        when(jokeRepository.findAllByDateGreaterThanOrderByDateAsc(TEST_DATE.minusDays(1), Limit.of(4))).thenReturn(List.of());
+
+        JokeSlice slice = jokeService.scrollJokes(TEST_DATE, after, null, 3);
+
+        assertTrue(slice.jokes().isEmpty());
+    }
+
+    @Test
+    void scrollJokes_beforeCursor() {
+        List<Joke> jokes = new ArrayList<>(createPageOfJokes(PageRequest.ofSize(4), 4).getContent()).reversed();
+        JokeCursor before = new JokeCursor(TEST_DATE.plusDays(4));
+        when(jokeRepository.findAllByDateLessThanOrderByDateDesc(before.date(), Limit.of(4))).thenReturn(jokes);
+
+        JokeSlice slice = jokeService.scrollJokes(null, null, before, 3);
+
+        assertEquals(List.of(TEST_DATE.plusDays(1), TEST_DATE.plusDays(2), TEST_DATE.plusDays(3)),
+                slice.jokes().stream().map(JokeRecord::date).toList());
+        assertEquals(new JokeCursor(TEST_DATE.plusDays(1)), slice.previous());
+        assertEquals(new JokeCursor(TEST_DATE.plusDays(3)), slice.next());
+    }
+
     @Test
     void addJoke_shouldSaveJoke() {
         Joke joke = createTestJoke();
@@ -90,6 +194,7 @@ class JokeServiceTest {
         JokeRecord result = jokeService.addJoke(createJokeRecord);
 
         assertTestJokeRecord(result);
+        verify(eventPublisher).publishEvent(JokeChangeEvent.saved(result));
     }
 
     @Test
@@ -108,6 +213,8 @@ class JokeServiceTest {
         when(jokeRepository.saveAndFlush(any(Joke.class))).thenThrow(DataIntegrityViolationException.class);
 
         assertThrows(JokeDataIntegrityException.class, () -> jokeService.addJoke(createJokeRecord));
+        verifyNoInteractions(eventPublisher);
+        assertEquals(1, meterRegistry.counter(JokeService.ERROR_COUNTER, "exception", "JokeDataIntegrityException").count());
     }
 
     @Test
@@ -118,6 +225,27 @@ class JokeServiceTest {
         assertThrows(JokeServiceException.class, () -> jokeService.addJoke(createJokeRecord));
     }
 
+    @Test
+    void addJokes_shouldSaveAllJokesWithSingleFlush() {
+        Joke joke = createTestJoke();
+        when(jokeRepository.saveAll(anyList())).thenReturn(List.of(joke, joke));
+
+        List<JokeRecord> result = jokeService.addJokes(List.of(createTestCreateJokeRecord(), createTestCreateJokeRecord()));
+
+        assertEquals(2, result.size());
+        assertTestJokeRecord(result.getFirst());
+        verify(jokeRepository, times(1)).flush();
+        verify(jokeRepository, never()).saveAndFlush(any(Joke.class));
+    }
+
+    @Test
+    void addJokes_whenDataIntegrityViolationException() {
+        List<CreateJokeRecord> requests = List.of(createTestCreateJokeRecord(), createTestCreateJokeRecord());
+        doThrow(DataIntegrityViolationException.class).when(jokeRepository).flush();
+
+        assertThrows(JokeDataIntegrityException.class, () -> jokeService.addJokes(requests));
+    }
+
     @Test
     void getJoke_shouldReturnJokeRecord() {
         Joke joke = createTestJoke();
@@ -129,18 +257,181 @@ class JokeServiceTest {
         assertTestJokeRecord(result);
     }
 
+    @Test
+    void getJoke_shouldCacheJokeRecordUntilChanged() {
+        when(jokeRepository.findById(TEST_ID)).thenReturn(Optional.of(createTestJoke()));
+
+        assertTestJokeRecord(jokeService.getJoke(TEST_ID));
+        assertTestJokeRecord(jokeService.getJoke(TEST_ID));
+        verify(jokeRepository, times(1)).findById(TEST_ID);
+
+        jokeCache.onJokeChange(JokeChangeEvent.removed(TEST_ID));
+        when(jokeRepository.findById(TEST_ID)).thenReturn(Optional.empty());
+        assertThrows(JokeNotFoundException.class, () -> jokeService.getJoke(TEST_ID));
+    }
+
     @Test
     void getJoke_whenNotFound() {
         when(jokeRepository.findById(TEST_ID)).thenReturn(Optional.empty());
 
         assertThrows(JokeNotFoundException.class, () -> jokeService.getJoke(TEST_ID));
+        assertEquals(1, meterRegistry.counter(JokeService.ERROR_COUNTER, "exception", "JokeNotFoundException").count());
+    }
+
+    @Test
+    void findJoke_shouldUseDateIndex() {
+        Joke joke = createTestJoke();
+        when(jokeRepository.streamJokeDates()).thenReturn(Stream.of(new JokeDate(TEST_ID, TEST_DATE)));
+        when(jokeRepository.findById(TEST_ID)).thenReturn(Optional.of(joke));
+        jokeService.loadDateIndex();
+
+        assertTestJokeRecord(jokeService.findJoke(TEST_DATE.plusDays(3), JokeDateMatch.FLOOR).orElseThrow());
+        assertTrue(jokeService.findJoke(TEST_DATE.plusDays(3), JokeDateMatch.EXACT).isEmpty());
+        assertTrue(jokeService.findJoke(TEST_DATE.plusDays(3), JokeDateMatch.CEILING).isEmpty());
+
+        verify(jokeRepository, never()).findByDate(any());
+        verify(jokeRepository, never()).findFirstByDateLessThanEqualOrderByDateDesc(any());
+        verify(jokeRepository, never()).findFirstByDateGreaterThanEqualOrderByDateAsc(any());
+    }
+
+    @Test
+    void findJoke_whenDateIndexNotLoaded() {
+        Joke joke = createTestJoke();
+        when(jokeRepository.findFirstByDateLessThanEqualOrderByDateDesc(TEST_DATE.plusDays(3))).thenReturn(Optional.of(joke));
+        when(jokeRepository.findFirstByDateGreaterThanEqualOrderByDateAsc(TEST_DATE.plusDays(3))).thenReturn(Optional.empty());
+
+        assertTestJokeRecord(jokeService.findJoke(TEST_DATE.plusDays(3), JokeDateMatch.NEAREST).orElseThrow());
+    }
+
+    @Test
+    void findJoke_whenDateIndexOutOfStep() {
+        Joke joke = createTestJoke();
+        when(jokeRepository.streamJokeDates()).thenReturn(Stream.of(new JokeDate(UUID.randomUUID(), TEST_DATE)));
+        when(jokeRepository.findById(any())).thenReturn(Optional.empty());
+        when(jokeRepository.findByDate(TEST_DATE)).thenReturn(Optional.of(joke));
+        jokeService.loadDateIndex();
+
+        assertTestJokeRecord(jokeService.findJoke(TEST_DATE, JokeDateMatch.EXACT).orElseThrow());
+    }
+
+    @Test
+    void findJoke_shouldFollowCommittedChanges() {
+        Joke joke = createTestJoke();
+        when(jokeRepository.streamJokeDates()).thenReturn(Stream.empty());
+        when(jokeRepository.findById(TEST_ID)).thenReturn(Optional.of(joke));
+        jokeService.loadDateIndex();
+
+        assertTrue(jokeService.findJoke(TEST_DATE, JokeDateMatch.EXACT).isEmpty());
+        jokeService.onJokeChange(JokeChangeEvent.saved(createTestJokeRecord()));
+        assertTestJokeRecord(jokeService.findJoke(TEST_DATE, JokeDateMatch.EXACT).orElseThrow());
+        jokeService.onJokeChange(JokeChangeEvent.removed(TEST_ID));
+        assertTrue(jokeService.findJoke(TEST_DATE, JokeDateMatch.EXACT).isEmpty());
+    }
+
+    @Test
+    void getJoke_shouldUseCatalogSnapshot() {
+        JokeCatalogSnapshot catalog = mock(JokeCatalogSnapshot.class);
+        when(catalogSnapshotService.getSnapshot()).thenReturn(Optional.of(catalog));
+        when(catalog.findById(TEST_ID)).thenReturn(Optional.of(createTestJokeRecord()));
+
+        assertTestJokeRecord(jokeService.getJoke(TEST_ID));
+        verifyNoInteractions(jokeRepository);
+    }
+
+    @Test
+    void getJokeOfTheDay_shouldUseCatalogSnapshot() {
+        JokeCatalogSnapshot catalog = mock(JokeCatalogSnapshot.class);
+        when(catalogSnapshotService.getSnapshot()).thenReturn(Optional.of(catalog));
+        when(catalog.between(TEST_DATE, TEST_DATE.plusDays(1), 2)).thenReturn(List.of(createTestJokeRecord()));
+
+        assertTestJokeRecord(jokeService.getJokeOfTheDay());
+        jokeService.getJokeOfTheDay();
+        jokeService.onCatalogSnapshot(catalog);
+        jokeService.getJokeOfTheDay();
+
+        verify(catalog, times(2)).between(TEST_DATE, TEST_DATE.plusDays(1), 2);
+        verifyNoInteractions(jokeRepository);
+    }
+
+    @Test
+    void addJoke_whenWritingAndServingCatalogSnapshot_jokeReadBeforeSnapshotRewritten(@TempDir Path directory) throws Exception {
+        CountDownLatch rewrite = new CountDownLatch(1);
+        when(jokeRepository.streamJokeRecords(null, null))
+                .thenReturn(Stream.empty())
+                .thenAnswer(invocation -> {
+                    rewrite.await();
+                    return Stream.of(createTestJokeRecord());
+                });
+        when(jokeRepository.saveAndFlush(any(Joke.class))).thenReturn(createTestJoke());
+        when(jokeRepository.findById(TEST_ID)).thenReturn(Optional.of(createTestJoke()));
+        BlockingQueue<JokeCatalogSnapshot> mapped = new LinkedBlockingQueue<>();
+        try (JokeCatalogSnapshotService catalogSnapshots = new JokeCatalogSnapshotService(jokeRepository,
+                mock(PlatformTransactionManager.class), eventPublisher, directory.resolve("jokes.snapshot"), true, true,
+                Duration.ofMinutes(1))) {
+            doAnswer(invocation -> {
+                catalogSnapshots.onJokeChange(invocation.getArgument(0));
+                return null;
+            }).when(eventPublisher).publishEvent(any(JokeChangeEvent.class));
+            doAnswer(invocation -> {
+                mapped.add(invocation.getArgument(0));
+                return null;
+            }).when(eventPublisher).publishEvent(any(JokeCatalogSnapshot.class));
+            jokeService = new JokeService(jokeRepository, conversionService, eventPublisher, meterRegistry,
+                    recurringJokeService, catalogSnapshots, jokeCache, Duration.ofSeconds(5));
+            catalogSnapshots.onApplicationReady();
+            assertNotNull(mapped.poll(5, TimeUnit.SECONDS));
+
+            jokeService.addJoke(createTestCreateJokeRecord());
+
+            // the snapshot being served doesn't have the joke until it has been rewritten
+            assertTrue(catalogSnapshots.getSnapshot().isEmpty());
+            assertTestJokeRecord(jokeService.getJoke(TEST_ID));
+
+            rewrite.countDown();
+            assertNotNull(mapped.poll(5, TimeUnit.SECONDS));
+            assertTestJokeRecord(jokeService.getJoke(TEST_ID));
+            verify(jokeRepository).findById(TEST_ID);
+        }
+    }
+
+    @Test
+    void loadDateIndex_whenServingCatalogSnapshot() {
+        when(catalogSnapshotService.isServing()).thenReturn(true);
+
+        jokeService.loadDateIndex();
+
+        verifyNoInteractions(jokeRepository);
+    }
+
+    @Test
+    void getJokesBetween_shouldUseDateIndex() {
+        List<Joke> jokes = createPageOfJokes(PageRequest.ofSize(5), 5).getContent();
+        when(jokeRepository.streamJokeDates()).thenReturn(jokes.stream().map(joke -> new JokeDate(joke.getId(), joke.getDate())));
+        when(jokeRepository.findAllById(anyList())).thenReturn(jokes.subList(1, 4).reversed());
+        jokeService.loadDateIndex();
+
+        JokeSlice slice = jokeService.getJokesBetween(TEST_DATE.plusDays(1), TEST_DATE.plusDays(4), 2);
+
+        assertEquals(List.of(jokes.get(1).getId(), jokes.get(2).getId()), slice.jokes().stream().map(JokeRecord::id).toList());
+        assertEquals(new JokeCursor(TEST_DATE.plusDays(2)), slice.next());
+        verify(jokeRepository, never()).findAllByDateBetweenOrderByDateAsc(any(), any(), any());
+    }
+
+    @Test
+    void getJokesBetween_whenDateIndexNotLoaded() {
+        List<Joke> jokes = createPageOfJokes(PageRequest.ofSize(2), 2).getContent();
+        when(jokeRepository.findAllByDateBetweenOrderByDateAsc(TEST_DATE, TEST_DATE.plusDays(9), Limit.of(3))).thenReturn(jokes);
+
+        JokeSlice slice = jokeService.getJokesBetween(TEST_DATE, TEST_DATE.plusDays(9), 2);
+
+        assertEquals(2, slice.jokes().size());
+        assertNull(slice.next());
     }
 
     @Test
     void getJokeOfTheDay_shouldReturnJokeRecord() {
         Joke joke = createTestJoke();
-        JokeRecord jokeRecord = createTestJokeRecord();
-        when(jokeRepository.findByDate(jokeRecord.date())).thenReturn(Optional.of(joke));
+        when(jokeRepository.findAllByDateBetweenOrderByDateAsc(TEST_DATE, TEST_DATE.plusDays(1))).thenReturn(List.of(joke));
 
         JokeRecord result = jokeService.getJokeOfTheDay();
 
@@ -150,68 +441,410 @@ class JokeServiceTest {
     @Test
     void getJokeOfTheDay_whenNotFound() {
         LocalDate today = LocalDate.now();
-        when(jokeRepository.findByDate(today)).thenReturn(Optional.empty());
+        when(jokeRepository.findAllByDateBetweenOrderByDateAsc(today, today.plusDays(1))).thenReturn(List.of());
 
         assertThrows(NoJokeOfTheDayException.class, () -> jokeService.getJokeOfTheDay());
     }
 
     @Test
-    void updateJoke_shouldUpdateJoke() {
+    void getJokeOfTheDay_shouldFallBackToRecurringJoke() {
+        JokeRecord recurring = new RecurringJokeRecord(TEST_ID, MonthDay.from(TEST_DATE), TEST_JOKE, TEST_DESCRIPTION, TEST_VERSION, null)
+                .toJokeRecord(TEST_DATE);
+        when(jokeRepository.findAllByDateBetweenOrderByDateAsc(TEST_DATE, TEST_DATE.plusDays(1))).thenReturn(List.of());
+        when(recurringJokeService.getJokeFor(TEST_DATE)).thenReturn(Optional.of(recurring));
+
+        JokeRecord result = jokeService.getJokeOfTheDay();
+
+        assertTestJokeRecord(result);
+        assertEquals(MonthDay.from(TEST_DATE), result.recurring());
+    }
+
+    @Test
+    void getJokeOfTheDay_shouldReloadAfterRecurringJokeChange() {
         Joke joke = createTestJoke();
-        JokeRecord jokeRecord = createTestJokeRecord();
-        when(jokeRepository.findById(jokeRecord.id())).thenReturn(Optional.of(joke));
+        when(jokeRepository.findAllByDateBetweenOrderByDateAsc(TEST_DATE, TEST_DATE.plusDays(1))).thenReturn(List.of(joke));
+
+        jokeService.getJokeOfTheDay();
+        jokeService.onRecurringJokeChange(new RecurringJokeChangeEvent(Set.of(MonthDay.from(TEST_DATE.plusDays(1)))));
+        jokeService.getJokeOfTheDay();
+        jokeService.onRecurringJokeChange(new RecurringJokeChangeEvent(Set.of(MonthDay.from(TEST_DATE.plusDays(7)))));
+        jokeService.getJokeOfTheDay();
+
+        verify(jokeRepository, times(2)).findAllByDateBetweenOrderByDateAsc(TEST_DATE, TEST_DATE.plusDays(1));
+    }
+
+    @Test
+    void getJokeOfTheDaySnapshot_shouldIncludeNextDay() {
+        Joke joke = createTestJoke();
+        Joke nextDay = createTestJoke();
+        nextDay.setId(UUID.randomUUID());
+        nextDay.setDate(TEST_DATE.plusDays(1));
+        when(jokeRepository.findAllByDateBetweenOrderByDateAsc(TEST_DATE, TEST_DATE.plusDays(1))).thenReturn(List.of(joke, nextDay));
+
+        JokeOfTheDay result = jokeService.getJokeOfTheDaySnapshot();
+
+        assertTestJokeRecord(result.joke());
+        assertEquals(nextDay.getId(), result.nextDay().id());
+    }
+
+    @Test
+    void getJokeOfTheDaySnapshot_inTimeZone() {
+        // a day apart, so at least one of them is on another date than the server
+        ZoneId behind = ZoneId.of("Etc/GMT+12");
+        ZoneId ahead = ZoneId.of("Pacific/Kiritimati");
+        when(jokeRepository.findAllByDateBetweenOrderByDateAsc(any(LocalDate.class), any(LocalDate.class)))
+                .thenAnswer(invocation -> {
+                    Joke joke = createTestJoke();
+                    joke.setDate(invocation.getArgument(0));
+                    return List.of(joke);
+                });
+
+        assertEquals(LocalDate.now(behind), jokeService.getJokeOfTheDaySnapshot(behind).joke().date());
+        assertEquals(LocalDate.now(ahead), jokeService.getJokeOfTheDaySnapshot(ahead).joke().date());
+        jokeService.getJokeOfTheDaySnapshot(behind);
+        jokeService.getJokeOfTheDaySnapshot(ahead);
+
+        verify(jokeRepository, times(2)).findAllByDateBetweenOrderByDateAsc(any(LocalDate.class), any(LocalDate.class));
+    }
+
+    @Test
+    void warmJokesOfTheDay_shouldLoadEveryCurrentDateWithOneQuery() {
+        LocalDate from = JokeOfTheDay.earliestDate();
+        LocalDate to = LocalDate.now(ZoneOffset.MAX).plusDays(1);
+        when(jokeRepository.findAllByDateBetweenOrderByDateAsc(from, to)).thenReturn(from.datesUntil(to.plusDays(1))
+                .map(date -> {
+                    Joke joke = createTestJoke();
+                    joke.setId(UUID.randomUUID());
+                    joke.setDate(date);
+                    return joke;
+                })
+                .toList());
+
+        jokeService.warmJokesOfTheDay(Duration.ZERO);
+        jokeService.warmJokesOfTheDay(Duration.ZERO);
+        for (ZoneId zone : List.of(ZoneOffset.MIN, ZoneOffset.UTC, ZoneOffset.MAX, ZoneId.systemDefault())) {
+            assertEquals(LocalDate.now(zone), jokeService.getJokeOfTheDaySnapshot(zone).date());
+        }
+
+        verify(jokeRepository, times(1)).findAllByDateBetweenOrderByDateAsc(any(LocalDate.class), any(LocalDate.class));
+    }
+
+    @Test
+    void warmJokesOfTheDay_shouldLoadNextDateAhead() {
+        LocalDate next = LocalDate.now(ZoneOffset.MAX).plusDays(1);
+        when(jokeRepository.findAllByDateBetweenOrderByDateAsc(any(LocalDate.class), any(LocalDate.class))).thenReturn(List.of());
+
+        // far enough ahead for the next date to have started somewhere
+        jokeService.warmJokesOfTheDay(Duration.ofDays(1));
+
+        verify(jokeRepository).findAllByDateBetweenOrderByDateAsc(JokeOfTheDay.earliestDate(), next.plusDays(1));
+    }
+
+    @Test
+    void getJokeOfTheDay_shouldOnlyQueryOnce() {
+        Joke joke = createTestJoke();
+        when(jokeRepository.findAllByDateBetweenOrderByDateAsc(TEST_DATE, TEST_DATE.plusDays(1))).thenReturn(List.of(joke));
+
+        jokeService.getJokeOfTheDay();
+        jokeService.getJokeOfTheDay();
+
+        verify(jokeRepository, times(1)).findAllByDateBetweenOrderByDateAsc(TEST_DATE, TEST_DATE.plusDays(1));
+    }
+
+    @Test
+    void getJokeOfTheDay_shouldReloadAfterAddingJokeForTomorrow() {
+        Joke joke = createTestJoke();
+        when(jokeRepository.findAllByDateBetweenOrderByDateAsc(TEST_DATE, TEST_DATE.plusDays(1))).thenReturn(List.of(joke));
         when(jokeRepository.saveAndFlush(any(Joke.class))).thenReturn(joke);
 
-        JokeRecord result = jokeService.updateJoke(jokeRecord.id(), jokeRecord);
+        jokeService.getJokeOfTheDay();
+        jokeService.addJoke(new CreateJokeRecord(TEST_DATE.plusDays(1), TEST_JOKE, TEST_DESCRIPTION));
+        jokeService.getJokeOfTheDay();
+
+        verify(jokeRepository, times(2)).findAllByDateBetweenOrderByDateAsc(TEST_DATE, TEST_DATE.plusDays(1));
+    }
+
+    @Test
+    void getJokeOfTheDay_shouldNotReloadAfterAddingUnrelatedJoke() {
+        Joke joke = createTestJoke();
+        when(jokeRepository.findAllByDateBetweenOrderByDateAsc(TEST_DATE, TEST_DATE.plusDays(1))).thenReturn(List.of(joke));
+        when(jokeRepository.saveAndFlush(any(Joke.class))).thenReturn(joke);
+
+        jokeService.getJokeOfTheDay();
+        jokeService.addJoke(new CreateJokeRecord(TEST_DATE.plusDays(7), TEST_JOKE, TEST_DESCRIPTION));
+        jokeService.getJokeOfTheDay();
+
+        verify(jokeRepository, times(1)).findAllByDateBetweenOrderByDateAsc(TEST_DATE, TEST_DATE.plusDays(1));
+    }
+
+    @Test
+    void getJokeOfTheDay_shouldReloadAfterRemovingJokeOfTheDay() {
+        Joke joke = createTestJoke();
+        when(jokeRepository.findAllByDateBetweenOrderByDateAsc(TEST_DATE, TEST_DATE.plusDays(1))).thenReturn(List.of(joke));
+        when(jokeRepository.deleteJoke(TEST_ID)).thenReturn(1);
+
+        jokeService.getJokeOfTheDay();
+        jokeService.removeJoke(TEST_ID);
+        jokeService.getJokeOfTheDay();
+
+        verify(jokeRepository, times(2)).findAllByDateBetweenOrderByDateAsc(TEST_DATE, TEST_DATE.plusDays(1));
+    }
+
+    @Test
+    void getJokeOfTheDay_whenReloadFails_servesLastSnapshot() {
+        Joke joke = createTestJoke();
+        when(jokeRepository.findAllByDateBetweenOrderByDateAsc(TEST_DATE, TEST_DATE.plusDays(1)))
+                .thenReturn(List.of(joke))
+                .thenThrow(new JpaSystemException(new RuntimeException("database unavailable")));
+        JokeOfTheDay loaded = jokeService.getJokeOfTheDaySnapshot();
+
+        jokeService.onRecurringJokeChange(new RecurringJokeChangeEvent(Set.of(MonthDay.from(TEST_DATE))));
+        JokeOfTheDay stale = jokeService.getJokeOfTheDaySnapshot();
+        jokeService.getJokeOfTheDaySnapshot();
+
+        assertTrue(stale.isStale());
+        assertEquals(loaded.joke(), stale.joke());
+        assertEquals(loaded.nextDay(), stale.nextDay());
+        // a failed load isn't retried straight away
+        verify(jokeRepository, times(2)).findAllByDateBetweenOrderByDateAsc(TEST_DATE, TEST_DATE.plusDays(1));
+        assertEquals(2, meterRegistry.counter(JokeService.STALE_JOKE_OF_THE_DAY_COUNTER).count());
+    }
+
+    @Test
+    void getJokeOfTheDay_whenReloadSlow_servesLastSnapshotUntilLoaded() throws Exception {
+        jokeService = createJokeService(Duration.ofMillis(10));
+        Joke joke = createTestJoke();
+        CountDownLatch release = new CountDownLatch(1);
+        when(jokeRepository.findAllByDateBetweenOrderByDateAsc(TEST_DATE, TEST_DATE.plusDays(1)))
+                .thenReturn(List.of(joke))
+                .thenAnswer(invocation -> {
+                    assertTrue(release.await(5, TimeUnit.SECONDS));
+                    return List.of(joke);
+                });
+        jokeService.getJokeOfTheDaySnapshot();
+
+        jokeService.onRecurringJokeChange(new RecurringJokeChangeEvent(Set.of(MonthDay.from(TEST_DATE))));
+        assertTrue(jokeService.getJokeOfTheDaySnapshot().isStale());
+        // still loading, so no other load is started
+        assertTrue(jokeService.getJokeOfTheDaySnapshot().isStale());
+        release.countDown();
+
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        JokeOfTheDay snapshot = jokeService.getJokeOfTheDaySnapshot();
+        while (snapshot.isStale() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            snapshot = jokeService.getJokeOfTheDaySnapshot();
+        }
+        assertFalse(snapshot.isStale());
+        verify(jokeRepository, times(2)).findAllByDateBetweenOrderByDateAsc(TEST_DATE, TEST_DATE.plusDays(1));
+    }
+
+    @Test
+    void getJokeOfTheDay_whenLoadFailsWithoutLastSnapshot() {
+        when(jokeRepository.findAllByDateBetweenOrderByDateAsc(TEST_DATE, TEST_DATE.plusDays(1)))
+                .thenThrow(new JpaSystemException(new RuntimeException("database unavailable")));
+
+        assertThrows(JpaSystemException.class, () -> jokeService.getJokeOfTheDaySnapshot());
+    }
+
+    @Test
+    void updateJoke_shouldUpdateJoke() {
+        JokeRecord jokeRecord = createTestJokeRecord();
+        whenUpdated().thenReturn(1);
+
+        JokeRecord result = jokeService.updateJoke(jokeRecord.id(), jokeRecord, null);
 
         assertTestJokeRecord(result);
+        // incremented by the database, so not known
+        assertNull(result.version());
+        assertNotNull(result.lastModified());
+        verify(eventPublisher).publishEvent(JokeChangeEvent.saved(result));
+        // a single statement
+        verify(jokeRepository, never()).findById(any());
+        verify(jokeRepository, never()).existsById(any());
     }
 
     @Test
     void updateJoke_whenDataIntegrityViolationException() {
-        Joke joke = createTestJoke();
         JokeRecord jokeRecord = createTestJokeRecord();
-        when(jokeRepository.findById(jokeRecord.id())).thenReturn(Optional.of(joke));
-        when(jokeRepository.saveAndFlush(any(Joke.class))).thenThrow(DataIntegrityViolationException.class);
+        whenUpdated().thenThrow(DataIntegrityViolationException.class);
 
-        assertThrows(JokeDataIntegrityException.class, () -> jokeService.updateJoke(jokeRecord.id(), jokeRecord));
+        assertThrows(JokeDataIntegrityException.class, () -> jokeService.updateJoke(jokeRecord.id(), jokeRecord, null));
     }
 
-    /**
-     * JpaSystemException is thrown when some error occurs within JPA such as trying to modify the id of an entity.
-     */
     @Test
     void updateJoke_whenJpaSystemException() {
-        Joke joke = createTestJoke();
         JokeRecord jokeRecord = createTestJokeRecord();
-        when(jokeRepository.findById(jokeRecord.id())).thenReturn(Optional.of(joke));
-        when(jokeRepository.saveAndFlush(any(Joke.class))).thenThrow(JpaSystemException.class);
+        whenUpdated().thenThrow(JpaSystemException.class);
+
+        assertThrows(JokeDataOperationException.class, () -> jokeService.updateJoke(jokeRecord.id(), jokeRecord, null));
+    }
+
+    @Test
+    void updateJoke_withChangedId() {
+        JokeRecord jokeRecord = createTestJokeRecord();
+
+        assertThrows(JokeDataOperationException.class, () -> jokeService.updateJoke(UUID.randomUUID(), jokeRecord, null));
+        verifyNoInteractions(jokeRepository);
+    }
 
-        assertThrows(JokeDataOperationException.class, () -> jokeService.updateJoke(jokeRecord.id(), jokeRecord));
+    @Test
+    void updateJoke_withExpectedVersion() {
+        JokeRecord jokeRecord = createTestJokeRecord();
+        whenUpdated(TEST_VERSION).thenReturn(1);
+
+        JokeRecord result = jokeService.updateJoke(jokeRecord.id(), jokeRecord, TEST_VERSION);
+
+        assertTestJokeRecord(result);
+        assertEquals(TEST_VERSION + 1, result.version());
+        // a single statement
+        verify(jokeRepository, never()).existsById(any());
+    }
+
+    @Test
+    void updateJoke_whenVersionConflict() {
+        JokeRecord jokeRecord = createTestJokeRecord();
+        whenUpdated(TEST_VERSION + 1).thenReturn(0);
+        when(jokeRepository.existsById(TEST_ID)).thenReturn(true);
+
+        assertThrows(JokeVersionConflictException.class, () -> jokeService.updateJoke(jokeRecord.id(), jokeRecord, TEST_VERSION + 1));
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
     void updateJoke_whenNotFound() {
         JokeRecord jokeRecord = createTestJokeRecord();
-        when(jokeRepository.findById(jokeRecord.id())).thenReturn(Optional.empty());
+        whenUpdated().thenReturn(0);
 
-        assertThrows(JokeNotFoundException.class, () -> jokeService.updateJoke(jokeRecord.id(), jokeRecord));
+        assertThrows(JokeNotFoundException.class, () -> jokeService.updateJoke(jokeRecord.id(), jokeRecord, null));
+        verify(jokeRepository, never()).updateJoke(any(), anyLong(), any(), any(), any(), any());
+        verify(jokeRepository, never()).existsById(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void updateJoke_withExpectedVersion_whenNotFound() {
+        JokeRecord jokeRecord = createTestJokeRecord();
+        whenUpdated(TEST_VERSION).thenReturn(0);
+        when(jokeRepository.existsById(TEST_ID)).thenReturn(false);
+
+        assertThrows(JokeNotFoundException.class, () -> jokeService.updateJoke(jokeRecord.id(), jokeRecord, TEST_VERSION));
     }
 
     @Test
     void removeJoke_shouldDeleteJoke() {
-        when(jokeRepository.existsById(TEST_ID)).thenReturn(true);
+        when(jokeRepository.deleteJoke(TEST_ID)).thenReturn(1);
 
         jokeService.removeJoke(TEST_ID);
 
-        verify(jokeRepository, times(1)).deleteById(TEST_ID);
+        verify(jokeRepository, never()).existsById(any());
+        verify(eventPublisher).publishEvent(JokeChangeEvent.removed(TEST_ID));
     }
 
     @Test
     void removeJoke_whenNotFound() {
-        when(jokeRepository.existsById(TEST_ID)).thenReturn(false);
+        when(jokeRepository.deleteJoke(TEST_ID)).thenReturn(0);
 
         assertThrows(JokeNotFoundException.class, () -> jokeService.removeJoke(TEST_ID));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void shiftJokes_shouldMoveJokesWithOneStatement() {
+        LocalDate to = TEST_DATE.plusDays(2);
+        List<JokeRecord> moved = List.of(
+                new JokeRecord(TEST_ID, TEST_DATE.plusDays(1), TEST_JOKE, TEST_DESCRIPTION, TEST_VERSION + 1, Instant.now()),
+                new JokeRecord(UUID.randomUUID(), TEST_DATE.plusDays(3), TEST_JOKE, TEST_DESCRIPTION, TEST_VERSION + 1, Instant.now()));
+        when(jokeRepository.countByDateBetweenExcluding(TEST_DATE.plusDays(1), to.plusDays(1), TEST_DATE, to)).thenReturn(0L);
+        when(jokeRepository.shiftJokes(eq(TEST_DATE), eq(to), eq(1L), any(Instant.class))).thenReturn(2);
+        when(jokeRepository.streamJokeRecords(TEST_DATE.plusDays(1), to.plusDays(1))).thenReturn(moved.stream());
+
+        assertEquals(2, jokeService.shiftJokes(TEST_DATE, to, 1));
+
+        verify(eventPublisher).publishEvent(JokeChangeEvent.saved(moved));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    void shiftJokes_whenDateTaken() {
+        LocalDate to = TEST_DATE.plusDays(2);
+        when(jokeRepository.countByDateBetweenExcluding(TEST_DATE.plusDays(7), to.plusDays(7), TEST_DATE, to)).thenReturn(1L);
+
+        assertThrows(JokeDataIntegrityException.class, () -> jokeService.shiftJokes(TEST_DATE, to, 7));
+
+        verify(jokeRepository, never()).shiftJokes(any(), any(), anyLong(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void shiftJokes_byNoDays() {
+        assertThrows(JokeDataOperationException.class, () -> jokeService.shiftJokes(TEST_DATE, TEST_DATE, 0));
+
+        verifyNoInteractions(jokeRepository);
+    }
+
+    @Test
+    void shiftJokes_whenNoneMoved() {
+        when(jokeRepository.shiftJokes(eq(TEST_DATE), eq(TEST_DATE), eq(-1L), any(Instant.class))).thenReturn(0);
+
+        assertEquals(0, jokeService.shiftJokes(TEST_DATE, TEST_DATE, -1));
+
+        verify(jokeRepository, never()).streamJokeRecords(any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void updateDescriptions_shouldUpdateJokesWithOneStatement() {
+        JokeRecord updated = new JokeRecord(TEST_ID, TEST_DATE, TEST_JOKE, "updated", TEST_VERSION + 1, Instant.now());
+        when(jokeRepository.updateDescriptions(eq(TEST_DATE), eq(TEST_DATE.plusDays(6)), eq("updated"), any(Instant.class))).thenReturn(1);
+        when(jokeRepository.streamJokeRecords(TEST_DATE, TEST_DATE.plusDays(6))).thenReturn(Stream.of(updated));
+
+        assertEquals(1, jokeService.updateDescriptions(TEST_DATE, TEST_DATE.plusDays(6), "updated"));
+
+        verify(eventPublisher).publishEvent(JokeChangeEvent.saved(List.of(updated)));
+    }
+
+    @Test
+    void updateDescriptions_withEmptyRange() {
+        assertThrows(JokeDataOperationException.class, () -> jokeService.updateDescriptions(TEST_DATE, TEST_DATE.minusDays(1), "updated"));
+
+        verifyNoInteractions(jokeRepository);
+    }
+
+    @Test
+    void removeJokes_shouldDeleteJokesWithOneStatement() {
+        UUID otherId = UUID.randomUUID();
+        when(jokeRepository.findJokeDatesByDateBetween(TEST_DATE, TEST_DATE.plusDays(6)))
+                .thenReturn(List.of(new JokeDate(TEST_ID, TEST_DATE), new JokeDate(otherId, TEST_DATE.plusDays(3))));
+        when(jokeRepository.deleteJokes(TEST_DATE, TEST_DATE.plusDays(6))).thenReturn(2);
+
+        assertEquals(2, jokeService.removeJokes(TEST_DATE, TEST_DATE.plusDays(6)));
+
+        verify(eventPublisher).publishEvent(new JokeChangeEvent(List.of(), List.of(TEST_ID, otherId)));
+    }
+
+    @Test
+    void removeJokes_whenChangedConcurrently() {
+        when(jokeRepository.findJokeDatesByDateBetween(TEST_DATE, TEST_DATE.plusDays(6)))
+                .thenReturn(List.of(new JokeDate(TEST_ID, TEST_DATE)));
+        when(jokeRepository.deleteJokes(TEST_DATE, TEST_DATE.plusDays(6))).thenReturn(2);
+
+        assertThrows(JokeDataIntegrityException.class, () -> jokeService.removeJokes(TEST_DATE, TEST_DATE.plusDays(6)));
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private JokeService createJokeService(Duration refreshTimeout) {
+        return new JokeService(jokeRepository, conversionService, eventPublisher, meterRegistry, recurringJokeService,
+                catalogSnapshotService, jokeCache, refreshTimeout);
+    }
+
+    private OngoingStubbing<Integer> whenUpdated() {
+        return when(jokeRepository.updateJoke(eq(TEST_ID), eq(TEST_DATE), eq(TEST_JOKE), eq(TEST_DESCRIPTION), any(Instant.class)));
+    }
+
+    private OngoingStubbing<Integer> whenUpdated(long version) {
+        return when(jokeRepository.updateJoke(eq(TEST_ID), eq(version), eq(TEST_DATE), eq(TEST_JOKE), eq(TEST_DESCRIPTION), any(Instant.class)));
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,82 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecurringJokeIndexTest {
+
+    private static final MonthDay APRIL_FOOLS = MonthDay.of(4, 1);
+
+    private final RecurringJokeIndex index = new RecurringJokeIndex();
+
+    @Test
+    void slot_coversEveryDayOfLeapYear() {
+        assertEquals(0, RecurringJokeIndex.slot(MonthDay.of(1, 1)));
+        assertEquals(59, RecurringJokeIndex.slot(MonthDay.of(2, 29)));
+        assertEquals(60, RecurringJokeIndex.slot(MonthDay.of(3, 1)));
+        assertEquals(RecurringJokeIndex.SLOTS - 1, RecurringJokeIndex.slot(MonthDay.of(12, 31)));
+    }
+
+    @Test
+    void jokeFor_rotatesByYear() {
+        RecurringJokeRecord first = recurringJoke(new UUID(0, 1), APRIL_FOOLS);
+        RecurringJokeRecord second = recurringJoke(new UUID(0, 2), APRIL_FOOLS);
+        index.put(second);
+        index.put(first);
+
+        assertEquals(List.of(first, second), index.jokesFor(APRIL_FOOLS));
+        assertEquals(Optional.of(first), index.jokeFor(LocalDate.of(2024, 4, 1)));
+        assertEquals(Optional.of(second), index.jokeFor(LocalDate.of(2025, 4, 1)));
+        assertEquals(Optional.of(first), index.jokeFor(LocalDate.of(2026, 4, 1)));
+        assertTrue(index.jokeFor(LocalDate.of(2025, 4, 2)).isEmpty());
+    }
+
+    @Test
+    void jokeFor_rotatesLeapDayByLeapYear() {
+        MonthDay leapDay = MonthDay.of(2, 29);
+        List<RecurringJokeRecord> jokes = List.of(recurringJoke(new UUID(0, 1), leapDay), recurringJoke(new UUID(0, 2), leapDay),
+                recurringJoke(new UUID(0, 3), leapDay), recurringJoke(new UUID(0, 4), leapDay));
+        jokes.forEach(index::put);
+
+        // consecutive leap years, across 2100 which isn't one
+        int[] leapYears = {2088, 2092, 2096, 2104, 2108, 2112, 2116, 2120};
+        int offset = jokes.indexOf(index.jokeFor(LocalDate.of(leapYears[0], 2, 29)).orElseThrow());
+        for (int i = 0; i < leapYears.length; i++) {
+            assertEquals(Optional.of(jokes.get((offset + i) % jokes.size())), index.jokeFor(LocalDate.of(leapYears[i], 2, 29)),
+                    "in " + leapYears[i]);
+        }
+    }
+
+    @Test
+    void put_movesJokeToNewMonthDay() {
+        RecurringJokeRecord joke = recurringJoke(UUID.randomUUID(), APRIL_FOOLS);
+        index.put(joke);
+        RecurringJokeRecord moved = recurringJoke(joke.id(), MonthDay.of(12, 25));
+        index.put(moved);
+
+        assertTrue(index.jokesFor(APRIL_FOOLS).isEmpty());
+        assertEquals(List.of(moved), index.jokesFor(MonthDay.of(12, 25)));
+    }
+
+    @Test
+    void remove_dropsJoke() {
+        RecurringJokeRecord joke = recurringJoke(UUID.randomUUID(), APRIL_FOOLS);
+        index.put(joke);
+        index.remove(joke.id());
+        index.remove(UUID.randomUUID());
+
+        assertTrue(index.jokeFor(LocalDate.of(2025, 4, 1)).isEmpty());
+    }
+
+    private static RecurringJokeRecord recurringJoke(UUID id, MonthDay monthDay) {
+        return new RecurringJokeRecord(id, monthDay, "Joke " + id, null, 0L, null);
+    }
+}
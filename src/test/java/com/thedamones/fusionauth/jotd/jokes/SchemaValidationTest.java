@@ -0,0 +1,20 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+/**
+ * Checks that {@code db/schema.sql}, which the fast-start profile creates the tables from, matches the entities:
+ * Hibernate fails to start if a table or column is missing or has the wrong type.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:db/schema.sql"
+})
+class SchemaValidationTest {
+
+    @Test
+    void schemaMatchesEntities() {
+    }
+}
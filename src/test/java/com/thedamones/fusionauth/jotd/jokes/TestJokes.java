@@ -18,6 +18,7 @@ public class TestJokes {
     public static final LocalDate TEST_DATE = LocalDate.now();
     public static final String TEST_JOKE = "TEST_JOKE";
     public static final String TEST_DESCRIPTION = "TEST_DESCRIPTION";
+    public static final Long TEST_VERSION = 0L;
 
     public static Joke createTestJoke() {
         Joke joke = new Joke();
@@ -25,6 +26,7 @@ public class TestJokes {
         joke.setDate(TEST_DATE);
         joke.setJoke(TEST_JOKE);
         joke.setDescription(TEST_DESCRIPTION);
+        joke.setVersion(TEST_VERSION);
         return joke;
     }
 
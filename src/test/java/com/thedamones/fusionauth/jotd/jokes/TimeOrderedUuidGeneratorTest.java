@@ -0,0 +1,36 @@
+package com.thedamones.fusionauth.jotd.jokes;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeOrderedUuidGeneratorTest {
+
+    @Test
+    void generate_version7() {
+        long now = System.currentTimeMillis();
+        UUID id = TimeOrderedUuidGenerator.generate();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        long timestamp = id.getMostSignificantBits() >>> 16;
+        // ahead of the clock if another test has used up the counter
+        assertTrue(Math.abs(timestamp - now) < 1000, id.toString());
+        assertEquals(id, UUID.fromString(id.toString()));
+    }
+
+    @Test
+    void generate_increasing() {
+        // many more than fit in one millisecond's counter
+        UUID previous = TimeOrderedUuidGenerator.generate();
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = TimeOrderedUuidGenerator.generate();
+            assertTrue(next.compareTo(previous) > 0, previous + " then " + next);
+            assertTrue(next.toString().compareTo(previous.toString()) > 0, previous + " then " + next);
+            previous = next;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.thedamones.fusionauth.jotd.search;
+
+import com.thedamones.fusionauth.jotd.jokes.JokeRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JokeSearchIndexTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 1, 1);
+
+    private final JokeRecord baker = new JokeRecord(UUID.randomUUID(), DATE, "Why did the baker quit? He was bread to death.", "A pun about baking");
+    private final JokeRecord chicken = new JokeRecord(UUID.randomUUID(), DATE.plusDays(1), "Why did the chicken cross the road?", "A classic");
+    private final JokeRecord bread = new JokeRecord(UUID.randomUUID(), DATE.plusDays(2), "Bread jokes are the yeast of my worries. Bread bread bread.", null);
+
+    private JokeSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new JokeSearchIndex();
+        index.put(baker);
+        index.put(chicken);
+        index.put(bread);
+    }
+
+    @Test
+    void search_ranksByRelevance() {
+        List<JokeSearchHit> hits = index.search("bread", 10);
+
+        assertEquals(List.of(bread, baker), hits.stream().map(JokeSearchHit::joke).toList());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+    }
+
+    @Test
+    void search_matchesStemsAndDescriptions() {
+        assertEquals(List.of(baker), index.search("Bakes", 10).stream().map(JokeSearchHit::joke).toList());
+        assertEquals(List.of(chicken), index.search("classics", 10).stream().map(JokeSearchHit::joke).toList());
+    }
+
+    @Test
+    void search_limitsResults() {
+        assertEquals(List.of(bread), index.search("bread", 1).stream().map(JokeSearchHit::joke).toList());
+    }
+
+    @Test
+    void search_ignoresStopWordsAndUnknownTerms() {
+        assertTrue(index.search("the", 10).isEmpty());
+        assertTrue(index.search("giraffe", 10).isEmpty());
+        assertTrue(index.search("", 10).isEmpty());
+    }
+
+    @Test
+    void put_replacesExistingJoke() {
+        JokeRecord updated = new JokeRecord(chicken.id(), chicken.date(), "Why did the chicken bake bread?", null);
+        index.put(updated);
+
+        assertEquals(3, index.size());
+        assertTrue(index.search("road", 10).isEmpty());
+        assertTrue(index.search("bread", 10).stream().anyMatch(hit -> hit.joke().equals(updated)));
+    }
+
+    @Test
+    void remove_dropsJokeFromResults() {
+        index.remove(bread.id());
+
+        assertEquals(2, index.size());
+        assertEquals(List.of(baker), index.search("bread", 10).stream().map(JokeSearchHit::joke).toList());
+    }
+}
@@ -0,0 +1,59 @@
+package com.thedamones.fusionauth.jotd.startup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StartupReportTest {
+
+    @Test
+    void of_phasesCoverWholeStartup() {
+        BufferingApplicationStartup applicationStartup = (BufferingApplicationStartup) StartupReportEndpoint.applicationStartup();
+        applicationStartup.start("spring.boot.application.starting").end();
+        applicationStartup.start("spring.boot.application.environment-prepared").end();
+        StartupStep refresh = applicationStartup.start("spring.context.refresh");
+        StartupStep bean = applicationStartup.start(StartupReport.BEAN_INSTANTIATION_STEP).tag("beanName", "jokeService");
+        bean.end();
+        refresh.end();
+        applicationStartup.start("spring.boot.application.started").end();
+        Instant jvmStart = applicationStartup.getBufferedTimeline().getStartTime().minusMillis(500);
+
+        StartupReport report = StartupReport.of(jvmStart, applicationStartup.getBufferedTimeline(),
+                Instant.now().plusMillis(100), 10);
+
+        assertEquals(List.of("jvm", "starting", "environment", "context-refresh", "started", "ready"),
+                report.phases().stream().map(StartupReport.Phase::name).toList());
+        assertEquals(500, report.phases().getFirst().durationMillis());
+        assertEquals(report.totalMillis(), report.phases().stream().mapToLong(StartupReport.Phase::durationMillis).sum(), 5);
+        assertEquals(List.of("jokeService"), report.slowestBeans().stream().map(StartupReport.Step::name).toList());
+    }
+
+    @Test
+    void of_withoutTimeline() {
+        Instant jvmStart = Instant.now();
+
+        StartupReport report = StartupReport.of(jvmStart, null, jvmStart.plus(Duration.ofSeconds(2)), 10);
+
+        assertEquals(2000, report.totalMillis());
+        assertEquals(List.of(new StartupReport.Phase("startup", 2000)), report.phases());
+        assertTrue(report.slowestBeans().isEmpty());
+    }
+
+    @Test
+    void applicationStartup_recordsOnlyReportedSteps() {
+        BufferingApplicationStartup applicationStartup = (BufferingApplicationStartup) StartupReportEndpoint.applicationStartup();
+        applicationStartup.start("spring.beans.smart-initialize").end();
+        applicationStartup.start(StartupReport.BEAN_INSTANTIATION_STEP).end();
+
+        assertEquals(List.of(StartupReport.BEAN_INSTANTIATION_STEP), applicationStartup.getBufferedTimeline().getEvents().stream()
+                .map(event -> event.getStartupStep().getName())
+                .toList());
+    }
+}
@@ -0,0 +1,58 @@
+package com.thedamones.fusionauth.jotd.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrecompressedBodyTest {
+
+    private final byte[] identity = "{\"joke\":\"joke\"}".repeat(10).getBytes(StandardCharsets.UTF_8);
+    private final PrecompressedBody body = PrecompressedBody.of(identity);
+
+    @Test
+    void of_gzipsBody() throws IOException {
+        assertSame(identity, body.get(false));
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body.get(true)))) {
+            assertArrayEquals(identity, gzip.readAllBytes());
+        }
+    }
+
+    @Test
+    void toResponse() {
+        ResponseEntity<byte[]> plain = body.toResponse(ResponseEntity.ok(), false);
+        ResponseEntity<byte[]> gzipped = body.toResponse(ResponseEntity.ok(), true);
+
+        assertSame(identity, plain.getBody());
+        assertEquals(identity.length, plain.getHeaders().getContentLength());
+        assertNull(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertSame(body.get(true), gzipped.getBody());
+        assertEquals(body.get(true).length, gzipped.getHeaders().getContentLength());
+        assertEquals("gzip", gzipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void eTag() {
+        assertEquals("\"a.1\"", PrecompressedBody.eTag("\"a.1\"", false));
+        assertEquals("\"a.1.gz\"", PrecompressedBody.eTag("\"a.1\"", true));
+    }
+
+    @Test
+    void acceptsGzip() {
+        assertTrue(PrecompressedBody.acceptsGzip("gzip"));
+        assertTrue(PrecompressedBody.acceptsGzip("gzip, deflate, br"));
+        assertTrue(PrecompressedBody.acceptsGzip("br;q=1.0, GZIP ; q=0.5"));
+        assertTrue(PrecompressedBody.acceptsGzip("deflate,gzip;q=0.01"));
+        assertFalse(PrecompressedBody.acceptsGzip("gzip;q=0"));
+        assertFalse(PrecompressedBody.acceptsGzip("gzip; q=0.000"));
+        assertFalse(PrecompressedBody.acceptsGzip("x-gzip, deflate"));
+        assertFalse(PrecompressedBody.acceptsGzip(""));
+        assertFalse(PrecompressedBody.acceptsGzip(null));
+    }
+}